@@ -2,6 +2,7 @@ package com.thunder.debugguardian;
 
 import com.thunder.debugguardian.config.DebugConfig;
 import com.thunder.debugguardian.debug.Watchdog;
+import com.thunder.debugguardian.debug.monitor.ClassLoadingIssueDetector;
 import com.thunder.debugguardian.debug.monitor.CrashRiskMonitor;
 import com.thunder.debugguardian.debug.monitor.ForceCloseDetector;
 import com.thunder.debugguardian.debug.monitor.GcPauseMonitor;
@@ -10,6 +11,7 @@ import com.thunder.debugguardian.debug.monitor.LiveLogMonitor;
 import com.thunder.debugguardian.debug.monitor.MemoryLeakMonitor;
 import com.thunder.debugguardian.debug.monitor.PerformanceMonitor;
 import com.thunder.debugguardian.debug.monitor.PerformanceSnapshotLogger;
+import com.thunder.debugguardian.debug.monitor.LagSourceTracker;
 import com.thunder.debugguardian.debug.monitor.StartupFailureReporter;
 import com.thunder.debugguardian.debug.monitor.ModLogSilencer;
 import com.thunder.debugguardian.debug.monitor.ThreadUsageMonitor;
@@ -84,6 +86,7 @@ public class DebugGuardian {
     private void earlyCommonSetup(final FMLCommonSetupEvent event) {
         DebugConfig.applyNeoForgeVersionCheckSetting();
         ModInstallTracker.recordNewMods();
+        ClassLoadingIssueDetector.buildIndex();
     }
 
     private void commonSetup(final FMLCommonSetupEvent event) {
@@ -100,6 +103,9 @@ public class DebugGuardian {
         if (config.performanceSnapshotEnable) {
             PerformanceSnapshotLogger.start();
         }
+        if (config.lagSourceEnable) {
+            LagSourceTracker.start();
+        }
         if (config.postMortemEnable) {
             PostMortemRecorder.init();
         }
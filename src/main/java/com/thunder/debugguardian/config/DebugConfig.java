@@ -14,6 +14,7 @@ import net.neoforged.neoforge.common.ModConfigSpec;
 
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -28,7 +29,7 @@ public class DebugConfig {
     // Post-Mortem Replay Settings
     public static final ModConfigSpec.IntValue POSTMORTEM_BUFFER_SIZE = BUILDER
             .comment("Number of game events to retain for post-mortem dump")
-            .defineInRange("postmortem.bufferSize", 500, 100, 10000);
+            .defineInRange("postmortem.bufferSize", 500, 100, 1000000);
 
     // GitHub Reporting Settings
     public static final ModConfigSpec.ConfigValue<String> REPORTING_GITHUB_REPO = BUILDER
@@ -184,6 +185,86 @@ public class DebugConfig {
             .comment("Automatically scan the active world for issues when the server starts")
             .define("world.autoScanOnStart", false);
 
+    // Profiler Settings
+    public static final ModConfigSpec.IntValue PROFILER_SAMPLE_INTERVAL_MS = BUILDER
+            .comment("Default interval in milliseconds between server thread samples for /debugguardian profile (10-50)")
+            .defineInRange("profiler.sampleIntervalMs", 20, 10, 50);
+
+    public static final ModConfigSpec.IntValue PROFILER_MAX_DURATION_SECONDS = BUILDER
+            .comment("Profiling sessions are stopped and written out automatically after this many seconds")
+            .defineInRange("profiler.maxDurationSeconds", 600, 10, 3600);
+
+    // Lag Source Instrumentation Settings
+    public static final ModConfigSpec.BooleanValue LAG_SOURCE_ENABLE = BUILDER
+            .comment("Time every entity and block entity tick and log the costliest types per mod (adds per-tick overhead)")
+            .define("monitoring.lagSources.enable", false);
+
+    public static final ModConfigSpec.IntValue LAG_SOURCE_TOP_N = BUILDER
+            .comment("Number of entity and block entity types listed in each lag source table")
+            .defineInRange("monitoring.lagSources.topN", 10, 1, 50);
+
+    public static final ModConfigSpec.IntValue LAG_SOURCE_DOMINANT_SHARE = BUILDER
+            .comment("Report a crash risk symptom when one type uses at least this percentage of server tick time")
+            .defineInRange("monitoring.lagSources.dominantSharePercent", 40, 5, 100);
+
+    // Post-Mortem Capture Policy Settings
+    public static final ModConfigSpec.ConfigValue<List<? extends String>> POST_MORTEM_ENTITY_ALLOW = BUILDER
+            .comment("Entity type ids recorded on spawn; leave empty to record every type not denied")
+            .defineListAllowEmpty("debug.postMortem.entityAllowList",
+                    List.of(),
+                    () -> "minecraft:pig", o -> o instanceof String);
+
+    public static final ModConfigSpec.ConfigValue<List<? extends String>> POST_MORTEM_ENTITY_DENY = BUILDER
+            .comment("Entity type ids never recorded on spawn")
+            .defineListAllowEmpty("debug.postMortem.entityDenyList",
+                    List.of(),
+                    () -> "minecraft:pig", o -> o instanceof String);
+
+    public static final ModConfigSpec.ConfigValue<List<? extends String>> POST_MORTEM_ENTITY_SAMPLE = BUILDER
+            .comment("Record only one in N spawns of an entity type, as 'type=N'")
+            .defineListAllowEmpty("debug.postMortem.entitySampleEvery",
+                    List.of("minecraft:item=10", "minecraft:experience_orb=10"),
+                    () -> "minecraft:pig=1", o -> o instanceof String);
+
+    public static final ModConfigSpec.ConfigValue<List<? extends String>> POST_MORTEM_EVENT_SAMPLE = BUILDER
+            .comment("Record only one in N events of a kind (TICK, ENTITY_SPAWN, COMMAND, PACKET_IN, PACKET_OUT), as 'KIND=N'")
+            .defineListAllowEmpty("debug.postMortem.eventSampleEvery",
+                    List.of(),
+                    () -> "TICK=1", o -> o instanceof String);
+
+    public static final ModConfigSpec.IntValue POST_MORTEM_ENTITY_RATE_LIMIT = BUILDER
+            .comment("Maximum spawns of one entity type recorded per second after sampling (0 = unlimited)")
+            .defineInRange("debug.postMortem.entityRateLimitPerSecond", 20, 0, 10000);
+
+    public static final ModConfigSpec.BooleanValue POST_MORTEM_COMPRESS_DUMPS = BUILDER
+            .comment("Gzip the JSON decoded from a post-mortem journal after an unclean shutdown")
+            .define("debug.postMortem.compressDumps", false);
+
+    // World Scan Settings
+    public static final ModConfigSpec.IntValue WORLD_SCAN_THREADS = BUILDER
+            .comment("Worker threads for in-process world scans; they run at minimum priority (0 = half the processors, at most 4)")
+            .defineInRange("world.scanThreads", 0, 0, 16);
+
+    public static final ModConfigSpec.IntValue WORLD_SCAN_DUTY_CYCLE_PERCENT = BUILDER
+            .comment("Share of wall time each world scan thread may spend working; it sleeps for the rest (100 disables throttling)")
+            .defineInRange("world.scanDutyCyclePercent", 100, 5, 100);
+
+    public static final ModConfigSpec.IntValue WORLD_SCAN_IO_LIMIT_MB_PER_SECOND = BUILDER
+            .comment("Maximum MiB per second in-process world scans may read from disk (0 = unlimited)")
+            .defineInRange("world.scanIoLimitMbPerSecond", 8, 0, 4096);
+
+    public static final ModConfigSpec.IntValue WORLD_SCAN_BACKOFF_MSPT = BUILDER
+            .comment("Average milliseconds per tick above which world scans pause with increasing backoff until the server recovers (0 = never)")
+            .defineInRange("world.scanBackoffMspt", 40, 0, 1000);
+
+    public static final ModConfigSpec.IntValue WORLD_SWEEP_INTERVAL_MINUTES = BUILDER
+            .comment("Minutes between background integrity sweeps of the running world (0 = disabled). Sweeps reuse findings for unchanged region files and resume after a restart.")
+            .defineInRange("world.sweepIntervalMinutes", 0, 0, 10080);
+
+    public static final ModConfigSpec.BooleanValue WORLD_SWEEP_DEEP = BUILDER
+            .comment("Decompress and parse every chunk during background sweeps instead of checking region headers only")
+            .define("world.sweepDeep", true);
+
     public static final ModConfigSpec SPEC = BUILDER.build();
 
     private static final DebugConfig DEFAULTS = new DebugConfig(
@@ -223,6 +304,23 @@ public class DebugConfig {
             false,
             false,
             false,
+            20,
+            600,
+            false,
+            10,
+            40,
+            List.of(),
+            List.of(),
+            List.of("minecraft:item=10", "minecraft:experience_orb=10"),
+            List.of(),
+            20,
+            false,
+            0,
+            100,
+            8,
+            40,
+            0,
+            true,
             snapshotModToggleValues()
     );
 
@@ -264,6 +362,23 @@ public class DebugConfig {
     public final boolean deadlockDetectorEnable;
     public final boolean unusedConfigScannerEnable;
     public final boolean worldAutoScanOnStart;
+    public final int profilerSampleIntervalMs;
+    public final int profilerMaxDurationSeconds;
+    public final boolean lagSourceEnable;
+    public final int lagSourceTopN;
+    public final int lagSourceDominantSharePercent;
+    public final List<String> postMortemEntityAllowList;
+    public final List<String> postMortemEntityDenyList;
+    public final List<String> postMortemEntitySampleEvery;
+    public final List<String> postMortemEventSampleEvery;
+    public final int postMortemEntityRateLimitPerSecond;
+    public final boolean postMortemCompressDumps;
+    public final int worldScanThreads;
+    public final int worldScanDutyCyclePercent;
+    public final int worldScanIoLimitMbPerSecond;
+    public final int worldScanBackoffMspt;
+    public final int worldSweepIntervalMinutes;
+    public final boolean worldSweepDeep;
     public final Map<String, Boolean> loggingModToggles;
 
     private DebugConfig(int postmortemBufferSize,
@@ -302,6 +417,23 @@ public class DebugConfig {
                         boolean deadlockDetectorEnable,
                         boolean unusedConfigScannerEnable,
                         boolean worldAutoScanOnStart,
+                        int profilerSampleIntervalMs,
+                        int profilerMaxDurationSeconds,
+                        boolean lagSourceEnable,
+                        int lagSourceTopN,
+                        int lagSourceDominantSharePercent,
+                        List<String> postMortemEntityAllowList,
+                        List<String> postMortemEntityDenyList,
+                        List<String> postMortemEntitySampleEvery,
+                        List<String> postMortemEventSampleEvery,
+                        int postMortemEntityRateLimitPerSecond,
+                        boolean postMortemCompressDumps,
+                        int worldScanThreads,
+                        int worldScanDutyCyclePercent,
+                        int worldScanIoLimitMbPerSecond,
+                        int worldScanBackoffMspt,
+                        int worldSweepIntervalMinutes,
+                        boolean worldSweepDeep,
                         Map<String, Boolean> loggingModToggles) {
         this.postmortemBufferSize = postmortemBufferSize;
         this.reportingGithubRepository = reportingGithubRepository;
@@ -339,6 +471,23 @@ public class DebugConfig {
         this.deadlockDetectorEnable = deadlockDetectorEnable;
         this.unusedConfigScannerEnable = unusedConfigScannerEnable;
         this.worldAutoScanOnStart = worldAutoScanOnStart;
+        this.profilerSampleIntervalMs = profilerSampleIntervalMs;
+        this.profilerMaxDurationSeconds = profilerMaxDurationSeconds;
+        this.lagSourceEnable = lagSourceEnable;
+        this.lagSourceTopN = lagSourceTopN;
+        this.lagSourceDominantSharePercent = lagSourceDominantSharePercent;
+        this.postMortemEntityAllowList = postMortemEntityAllowList;
+        this.postMortemEntityDenyList = postMortemEntityDenyList;
+        this.postMortemEntitySampleEvery = postMortemEntitySampleEvery;
+        this.postMortemEventSampleEvery = postMortemEventSampleEvery;
+        this.postMortemEntityRateLimitPerSecond = postMortemEntityRateLimitPerSecond;
+        this.postMortemCompressDumps = postMortemCompressDumps;
+        this.worldScanThreads = worldScanThreads;
+        this.worldScanDutyCyclePercent = worldScanDutyCyclePercent;
+        this.worldScanIoLimitMbPerSecond = worldScanIoLimitMbPerSecond;
+        this.worldScanBackoffMspt = worldScanBackoffMspt;
+        this.worldSweepIntervalMinutes = worldSweepIntervalMinutes;
+        this.worldSweepDeep = worldSweepDeep;
         this.loggingModToggles = Collections.unmodifiableMap(new LinkedHashMap<>(loggingModToggles));
     }
 
@@ -380,6 +529,23 @@ public class DebugConfig {
                 DEADLOCK_DETECTOR_ENABLE.get(),
                 UNUSED_CONFIG_SCANNER_ENABLE.get(),
                 WORLD_AUTO_SCAN_ON_START.get(),
+                PROFILER_SAMPLE_INTERVAL_MS.get(),
+                PROFILER_MAX_DURATION_SECONDS.get(),
+                LAG_SOURCE_ENABLE.get(),
+                LAG_SOURCE_TOP_N.get(),
+                LAG_SOURCE_DOMINANT_SHARE.get(),
+                List.copyOf(POST_MORTEM_ENTITY_ALLOW.get()),
+                List.copyOf(POST_MORTEM_ENTITY_DENY.get()),
+                List.copyOf(POST_MORTEM_ENTITY_SAMPLE.get()),
+                List.copyOf(POST_MORTEM_EVENT_SAMPLE.get()),
+                POST_MORTEM_ENTITY_RATE_LIMIT.get(),
+                POST_MORTEM_COMPRESS_DUMPS.get(),
+                WORLD_SCAN_THREADS.get(),
+                WORLD_SCAN_DUTY_CYCLE_PERCENT.get(),
+                WORLD_SCAN_IO_LIMIT_MB_PER_SECOND.get(),
+                WORLD_SCAN_BACKOFF_MSPT.get(),
+                WORLD_SWEEP_INTERVAL_MINUTES.get(),
+                WORLD_SWEEP_DEEP.get(),
                 snapshotModToggleValues()
         );
     }
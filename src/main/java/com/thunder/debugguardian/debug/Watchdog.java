@@ -4,27 +4,23 @@ import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.MemoryUsage;
 import java.lang.management.ThreadMXBean;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import static com.thunder.debugguardian.DebugGuardian.LOGGER;
 
 import com.thunder.debugguardian.config.DebugConfig;
 import com.thunder.debugguardian.debug.monitor.CrashRiskMonitor;
+import com.thunder.debugguardian.debug.monitor.MonitorScheduler;
 
 public class Watchdog {
 
-    private static ScheduledExecutorService executor;
-    private static ScheduledFuture<?> scheduledTask;
+    private static MonitorScheduler.Registration scheduledTask;
 
     public static synchronized void start() {
         if (!DebugConfig.get().watchdogEnable) {
             stop();
             return;
         }
-        ensureExecutor();
         reschedule();
     }
 
@@ -33,40 +29,25 @@ public class Watchdog {
             stop();
             return;
         }
-        ensureExecutor();
         reschedule();
     }
 
-    private static void ensureExecutor() {
-        if (executor == null || executor.isShutdown()) {
-            executor = Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread t = new Thread(r, "DebugGuardian Watchdog");
-                t.setDaemon(true);
-                return t;
-            });
-        }
-    }
-
     private static void reschedule() {
         long interval = Math.max(1, DebugConfig.get().watchdogCheckIntervalSeconds);
         if (scheduledTask != null && !scheduledTask.isCancelled()) {
             scheduledTask.cancel(false);
         }
-        scheduledTask = executor.scheduleAtFixedRate(Watchdog::checkResources, interval, interval, TimeUnit.SECONDS);
+        scheduledTask = MonitorScheduler.schedule("watchdog", Watchdog::checkResources, interval, interval, TimeUnit.SECONDS);
     }
 
     /**
-     * Stop the watchdog scheduler and clean up resources.
+     * Stop the watchdog task and clean up resources.
      */
     public static synchronized void stop() {
         if (scheduledTask != null) {
             scheduledTask.cancel(true);
             scheduledTask = null;
         }
-        if (executor != null) {
-            executor.shutdownNow();
-            executor = null;
-        }
     }
 
     private static void checkResources() {
@@ -0,0 +1,105 @@
+package com.thunder.debugguardian.debug.command;
+
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.thunder.debugguardian.DebugGuardian;
+import com.thunder.debugguardian.config.DebugConfig;
+import com.thunder.debugguardian.debug.profiler.ServerThreadProfiler;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.RegisterCommandsEvent;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static com.thunder.debugguardian.DebugGuardian.MOD_ID;
+
+/**
+ * Registers {@code /debugguardian profile start|stop}, which controls the
+ * server thread sampling profiler.
+ */
+@EventBusSubscriber(modid = MOD_ID)
+public final class ProfileCommand {
+    private static final int TOP_MODS = 5;
+
+    private ProfileCommand() {
+    }
+
+    @SubscribeEvent
+    public static void onRegisterCommands(RegisterCommandsEvent event) {
+        event.getDispatcher().register(
+                Commands.literal("debugguardian")
+                        .requires(source -> source.hasPermission(2))
+                        .then(Commands.literal("profile")
+                                .then(Commands.literal("start")
+                                        .executes(ctx -> start(ctx.getSource(),
+                                                DebugConfig.get().profilerSampleIntervalMs))
+                                        .then(Commands.argument("intervalMs", IntegerArgumentType.integer(10, 50))
+                                                .executes(ctx -> start(ctx.getSource(),
+                                                        IntegerArgumentType.getInteger(ctx, "intervalMs")))))
+                                .then(Commands.literal("stop")
+                                        .executes(ctx -> stop(ctx.getSource()))))
+        );
+    }
+
+    private static int start(CommandSourceStack source, int intervalMs) {
+        if (ServerThreadProfiler.isRunning()) {
+            source.sendFailure(Component.literal("The profiler is already running; use /debugguardian profile stop"));
+            return 0;
+        }
+        if (!ServerThreadProfiler.start(intervalMs)) {
+            source.sendFailure(Component.literal("Could not locate the server thread to profile"));
+            return 0;
+        }
+        source.sendSuccess(() -> Component.literal("Profiling the server thread every " + intervalMs + " ms"), true);
+        return 1;
+    }
+
+    private static int stop(CommandSourceStack source) {
+        CompletableFuture<ServerThreadProfiler.Result> pending = ServerThreadProfiler.stop();
+        if (pending == null) {
+            source.sendFailure(Component.literal("The profiler is not running"));
+            return 0;
+        }
+        // The sampler writes the profile off-thread; reply on the server thread once it has.
+        MinecraftServer server = source.getServer();
+        pending.whenComplete((result, error) -> server.execute(() -> {
+            if (error != null) {
+                reportFailure(source, error);
+            } else {
+                reportResult(source, result);
+            }
+        }));
+        return 1;
+    }
+
+    private static void reportFailure(CommandSourceStack source, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        DebugGuardian.LOGGER.error("Server thread profiler failed", cause);
+        source.sendFailure(Component.literal("The profiler failed: " + cause.getMessage()));
+    }
+
+    private static void reportResult(CommandSourceStack source, ServerThreadProfiler.Result result) {
+        source.sendSuccess(() -> Component.literal("Collected " + result.samples() + " samples over "
+                + result.durationMs() / 1000 + " s"), true);
+        List<Map.Entry<String, Integer>> mods = result.samplesByMod();
+        for (int i = 0; i < mods.size() && i < TOP_MODS; i++) {
+            Map.Entry<String, Integer> entry = mods.get(i);
+            double percent = result.samples() == 0 ? 0.0 : entry.getValue() * 100.0 / result.samples();
+            String line = String.format(Locale.ROOT, "  %s: %.1f%% (%d samples)", entry.getKey(), percent, entry.getValue());
+            source.sendSuccess(() -> Component.literal(line), false);
+        }
+        if (result.output() != null) {
+            source.sendSuccess(() -> Component.literal("Collapsed stacks saved to "
+                    + result.output().toAbsolutePath()), false);
+        } else {
+            source.sendFailure(Component.literal("Failed to write the profile; see the log for details"));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.thunder.debugguardian.debug.command;
+
+import com.thunder.debugguardian.debug.monitor.TickPhaseTimer;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.RegisterCommandsEvent;
+
+import java.util.List;
+import java.util.Locale;
+
+import static com.thunder.debugguardian.DebugGuardian.MOD_ID;
+
+/**
+ * Registers {@code /debugguardian ticks}, which shows how the recent server
+ * tick time splits across dimensions and the network and chunk-save phases.
+ */
+@EventBusSubscriber(modid = MOD_ID)
+public final class TickTimingCommand {
+    private TickTimingCommand() {
+    }
+
+    @SubscribeEvent
+    public static void onRegisterCommands(RegisterCommandsEvent event) {
+        event.getDispatcher().register(
+                Commands.literal("debugguardian")
+                        .requires(source -> source.hasPermission(2))
+                        .then(Commands.literal("ticks")
+                                .executes(ctx -> execute(ctx.getSource())))
+        );
+    }
+
+    private static int execute(CommandSourceStack source) {
+        List<TickPhaseTimer.RecentPhase> phases = TickPhaseTimer.recent();
+        TickPhaseTimer.RecentPhase total = phases.get(0);
+        if (total.averageMillis() <= 0.0) {
+            source.sendFailure(Component.literal("No server ticks have been timed yet"));
+            return 0;
+        }
+        source.sendSuccess(() -> Component.literal(String.format(Locale.ROOT,
+                "Server tick: %.2f ms average, %.2f ms max over the last ~10 s", total.averageMillis(), total.maxMillis())),
+                false);
+        for (TickPhaseTimer.RecentPhase phase : phases.subList(1, phases.size())) {
+            if (phase.averageMillis() <= 0.0) {
+                continue;
+            }
+            String line;
+            if (phase.everyTick()) {
+                line = String.format(Locale.ROOT, "  %s: %.2f ms average (%.1f%%), %.2f ms max",
+                        phase.name(), phase.averageMillis(), phase.averageMillis() * 100.0 / total.averageMillis(),
+                        phase.maxMillis());
+            } else if (phase.maxMillis() > 0.0) {
+                line = String.format(Locale.ROOT, "  %s: %.2f ms per run, %.2f ms max",
+                        phase.name(), phase.averageMillis(), phase.maxMillis());
+            } else {
+                line = String.format(Locale.ROOT, "  %s: %.2f ms per run, no run in the last ~10 s",
+                        phase.name(), phase.averageMillis());
+            }
+            source.sendSuccess(() -> Component.literal(line), false);
+        }
+        return 1;
+    }
+}
@@ -2,28 +2,32 @@ package com.thunder.debugguardian.debug.command;
 
 import com.mojang.brigadier.Command;
 import com.thunder.debugguardian.DebugGuardian;
+import com.thunder.debugguardian.debug.world.WorldInspectionResult;
+import com.thunder.debugguardian.debug.world.WorldScanService;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.MinecraftServer;
-import net.minecraft.world.level.storage.LevelResource;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.EventBusSubscriber;
 import net.neoforged.fml.loading.FMLPaths;
 import net.neoforged.neoforge.event.RegisterCommandsEvent;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 
 import static com.thunder.debugguardian.DebugGuardian.MOD_ID;
 
 /**
- * Registers the /worldcheck command which launches an external helper process
- * to analyse the current world directory for signs of corruption.
+ * Registers the /worldcheck command which scans the current world directory
+ * for signs of corruption in-process through {@link WorldScanService}.
+ * {@code /worldcheck deep} also decompresses and parses every stored chunk;
+ * {@code pause}, {@code resume} and {@code cancel} control the running scan,
+ * including background sweeps.
  */
 @EventBusSubscriber(modid = MOD_ID)
 public final class WorldCheckCommand {
@@ -37,122 +41,114 @@ public final class WorldCheckCommand {
         event.getDispatcher().register(
                 Commands.literal("worldcheck")
                         .requires(source -> source.hasPermission(2))
-                        .executes(ctx -> execute(ctx.getSource()))
+                        .executes(ctx -> execute(ctx.getSource(), false))
+                        .then(Commands.literal("deep")
+                                .executes(ctx -> execute(ctx.getSource(), true)))
+                        .then(Commands.literal("pause")
+                                .executes(ctx -> pause(ctx.getSource(), true)))
+                        .then(Commands.literal("resume")
+                                .executes(ctx -> pause(ctx.getSource(), false)))
+                        .then(Commands.literal("cancel")
+                                .executes(ctx -> cancel(ctx.getSource())))
         );
     }
 
-    private static int execute(CommandSourceStack source) {
+    private static int execute(CommandSourceStack source, boolean deep) {
+        if (WorldScanService.running() != null) {
+            source.sendFailure(Component.literal("A world scan is already running; use /worldcheck cancel to stop it."));
+            return 0;
+        }
+
         MinecraftServer server = source.getServer();
-        Path worldDir = server.getWorldPath(LevelResource.ROOT);
         Path reportDir = FMLPaths.GAMEDIR.get().resolve("debugguardian").resolve("worldchecks");
         String timestamp = LocalDateTime.now().format(TIMESTAMP);
         Path reportFile = reportDir.resolve("worldcheck-" + timestamp + ".txt");
 
-        try {
-            Files.createDirectories(reportDir);
-        } catch (IOException e) {
-            DebugGuardian.LOGGER.error("Failed to create world check report directory", e);
-            source.sendFailure(Component.literal("Failed to prepare world check report directory: " + e.getMessage()));
+        Component startMessage = Component.literal("Starting " + (deep ? "deep " : "") + "world integrity scan; report will be saved to " + reportFile.toAbsolutePath());
+        source.sendSuccess(() -> startMessage, false);
+
+        WorldScanService.submit(server, deep, null).result()
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        server.execute(() -> reportFailure(source, error));
+                        return;
+                    }
+                    boolean written = writeReport(result, reportFile);
+                    server.execute(() -> reportResult(source, result, written ? reportFile : null));
+                });
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int pause(CommandSourceStack source, boolean pause) {
+        WorldScanService.ScanTask task = WorldScanService.running();
+        if (task == null) {
+            source.sendFailure(Component.literal("No world scan is running."));
             return 0;
         }
+        if (pause) {
+            task.pause();
+        } else {
+            task.resume();
+        }
+        source.sendSuccess(() -> Component.literal(pause ? "World integrity scan paused." : "World integrity scan resumed."), false);
+        return Command.SINGLE_SUCCESS;
+    }
 
-        Component startMessage = Component.literal("Starting world integrity scan; report will be saved to " + reportFile.toAbsolutePath());
-        source.sendSuccess(() -> startMessage, false);
-
-        Thread worker = new Thread(() -> runHelper(server, source, worldDir, reportFile), "debugguardian-worldcheck");
-        worker.setDaemon(true);
-        worker.start();
+    private static int cancel(CommandSourceStack source) {
+        WorldScanService.ScanTask task = WorldScanService.running();
+        if (task == null) {
+            source.sendFailure(Component.literal("No world scan is running."));
+            return 0;
+        }
+        task.cancel();
+        source.sendSuccess(() -> Component.literal("Cancelling world integrity scan."), false);
         return Command.SINGLE_SUCCESS;
     }
 
-    private static void runHelper(MinecraftServer server, CommandSourceStack source, Path worldDir, Path reportFile) {
-        Process process;
+    private static boolean writeReport(WorldInspectionResult result, Path reportFile) {
         try {
-            process = new ProcessBuilder(
-                    "java",
-                    "-cp",
-                    System.getProperty("java.class.path"),
-                    "com.thunder.debugguardian.debug.external.WorldCheckHelper",
-                    worldDir.toAbsolutePath().toString(),
-                    reportFile.toAbsolutePath().toString()
-            )
-                    .inheritIO()
-                    .start();
+            result.writeReport(reportFile);
+            return true;
         } catch (IOException e) {
-            DebugGuardian.LOGGER.error("Failed to launch world check helper", e);
-            server.execute(() -> source.sendFailure(Component.literal("Failed to launch world check helper: " + e.getMessage())));
-            return;
+            DebugGuardian.LOGGER.error("Failed to write world check report", e);
+            return false;
         }
+    }
 
-        int exitCode;
-        try {
-            exitCode = process.waitFor();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            server.execute(() -> source.sendFailure(Component.literal("World check was interrupted.")));
-            return;
+    private static void reportFailure(CommandSourceStack source, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof CancellationException) {
+            source.sendFailure(Component.literal("World check was cancelled."));
+        } else {
+            DebugGuardian.LOGGER.error("World check failed", cause);
+            source.sendFailure(Component.literal("World check failed: " + cause.getMessage()));
         }
-
-        int finalExitCode = exitCode;
-        server.execute(() -> reportResult(source, reportFile, finalExitCode));
     }
 
-    private static void reportResult(CommandSourceStack source, Path reportFile, int exitCode) {
+    private static void reportResult(CommandSourceStack source, WorldInspectionResult result, Path reportFile) {
+        int exitCode = result.exitCode();
         String defaultStatus = switch (exitCode) {
             case 0 -> "No issues detected";
             case 1 -> "Warnings detected";
             default -> "Errors detected";
         };
 
-        if (Files.exists(reportFile)) {
-            String summary = defaultStatus;
-            try {
-                List<String> lines = Files.readAllLines(reportFile);
-                String statusText = null;
-                String summaryCounts = null;
-                String firstDetail = null;
-                for (String line : lines) {
-                    if (statusText == null && line.startsWith("Status:")) {
-                        statusText = line.substring("Status:".length()).trim();
-                    } else if (summaryCounts == null && line.startsWith("Summary:")) {
-                        summaryCounts = line.substring("Summary:".length()).trim();
-                    } else if (firstDetail == null && line.startsWith(" - ")) {
-                        firstDetail = line.substring(3).trim();
-                    }
+        StringBuilder builder = new StringBuilder(defaultStatus);
+        builder.append(" (Status: ").append(result.status()).append(")");
+        builder.append(" (").append(result.summaryCounts()).append(")");
+        String firstIssue = result.firstIssue();
+        if (firstIssue != null) {
+            builder.append(" (").append(firstIssue).append(")");
+        }
+        String summary = builder.toString();
 
-                    if (statusText != null && summaryCounts != null && firstDetail != null) {
-                        break;
-                    }
-                }
-
-                StringBuilder builder = new StringBuilder(summary);
-                if (statusText != null && !statusText.isEmpty()) {
-                    builder.append(" (Status: ").append(statusText).append(")");
-                }
-                if (summaryCounts != null && !summaryCounts.isEmpty()) {
-                    builder.append(" (").append(summaryCounts).append(")");
-                }
-                if (firstDetail != null && !firstDetail.isEmpty()) {
-                    builder.append(" (").append(firstDetail).append(")");
-                }
-                summary = builder.toString();
-            } catch (IOException e) {
-                DebugGuardian.LOGGER.warn("Failed to read world check report", e);
-            }
-
-            final Component message = Component.literal("World check completed: " + summary + ". Report saved to " + reportFile.toAbsolutePath());
-            if (exitCode >= 2) {
-                source.sendFailure(message);
-            } else {
-                source.sendSuccess(() -> message, false);
-            }
+        final Component message = reportFile != null
+                ? Component.literal("World check completed: " + summary + ". Report saved to " + reportFile.toAbsolutePath())
+                : Component.literal("World check completed: " + summary + ", but the report file could not be written.");
+        if (exitCode >= 2) {
+            source.sendFailure(message);
         } else {
-            final Component message = Component.literal("World check finished: " + defaultStatus + ", but no report file was generated.");
-            if (exitCode >= 2) {
-                source.sendFailure(message);
-            } else {
-                source.sendSuccess(() -> message, false);
-            }
+            source.sendSuccess(() -> message, false);
         }
     }
 }
@@ -1,26 +1,77 @@
 package com.thunder.debugguardian.debug.errors;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-
+/**
+ * Computes a 64-bit fingerprint of a throwable from its class name and the
+ * class name, method name and line number of its top stack frames.
+ * <p>
+ * The hash is streamed directly over the characters of those names into a
+ * primitive accumulator (xxHash64-style multiply/rotate rounds with a final
+ * avalanche), so fingerprinting allocates nothing beyond the stack trace array
+ * the JVM hands back. Use {@link #toHex(long)} only when the value is printed.
+ */
 public class ErrorFingerprinter {
-    public static String fingerprint(Throwable t) {
+    private static final int FRAME_LIMIT = 5;
+
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME_3 = 0x165667B19E3779F9L;
+    private static final long PRIME_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME_5 = 0x27D4EB2F165667C5L;
+
+    public static long fingerprint(Throwable t) {
+        long h = PRIME_5;
+        h = mixString(h, t.getClass().getName());
         StackTraceElement[] st = t.getStackTrace();
-        StringBuilder sb = new StringBuilder(t.getClass().getName());
-        int limit = Math.min(st.length, 5);
+        int limit = Math.min(st.length, FRAME_LIMIT);
         for (int i = 0; i < limit; i++) {
-            sb.append(";").append(st[i].toString());
+            StackTraceElement frame = st[i];
+            h = mixString(h, frame.getClassName());
+            h = mixString(h, frame.getMethodName());
+            h = round(h, frame.getLineNumber());
         }
-        try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] hash = md.digest(sb.toString().getBytes());
-            StringBuilder hex = new StringBuilder();
-            for (byte b : hash) {
-                hex.append(String.format("%02x", b));
-            }
-            return hex.toString();
-        } catch (NoSuchAlgorithmException e) {
-            return String.valueOf(sb.toString().hashCode());
+        return avalanche(h);
+    }
+
+    /**
+     * Renders a fingerprint as 16 lower-case hex digits.
+     */
+    public static String toHex(long fingerprint) {
+        String hex = Long.toHexString(fingerprint);
+        return hex.length() == 16 ? hex : "0".repeat(16 - hex.length()) + hex;
+    }
+
+    private static long mixString(long h, String s) {
+        if (s == null) {
+            return round(h, 0);
         }
+        int length = s.length();
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            long packed = (long) s.charAt(i)
+                    | (long) s.charAt(i + 1) << 16
+                    | (long) s.charAt(i + 2) << 32
+                    | (long) s.charAt(i + 3) << 48;
+            h = round(h, packed);
+        }
+        long tail = 0;
+        for (int shift = 0; i < length; i++, shift += 16) {
+            tail |= (long) s.charAt(i) << shift;
+        }
+        // Length acts as a separator so "ab"+"c" and "a"+"bc" hash differently.
+        return round(round(h, tail), length);
+    }
+
+    private static long round(long h, long value) {
+        h ^= Long.rotateLeft(value * PRIME_2, 31) * PRIME_1;
+        return Long.rotateLeft(h, 27) * PRIME_1 + PRIME_4;
+    }
+
+    private static long avalanche(long h) {
+        h ^= h >>> 33;
+        h *= PRIME_2;
+        h ^= h >>> 29;
+        h *= PRIME_3;
+        h ^= h >>> 32;
+        return h;
     }
-}
\ No newline at end of file
+}
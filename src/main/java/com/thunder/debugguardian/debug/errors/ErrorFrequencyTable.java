@@ -0,0 +1,209 @@
+package com.thunder.debugguardian.debug.errors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed-size frequency table for error fingerprints.
+ * <p>
+ * Per-window counts are kept in two count-min sketches (the current and the
+ * previous window) using conservative update, which gives a sliding per-window
+ * rate without storing any keys. Noisy fingerprints are additionally tracked in
+ * a small Space-Saving heavy-hitter table holding longer-running totals; those
+ * totals are halved on every window rotation so old errors fade out. Memory is
+ * fixed at construction time regardless of how many distinct errors are seen.
+ */
+public final class ErrorFrequencyTable {
+    private final int depth;
+    private final int mask;
+    private final long windowMillis;
+
+    private int[] current;
+    private int[] previous;
+    private long windowStart;
+
+    private final long[] hitterKeys;
+    private final long[] hitterCounts;
+    private final long[] hitterErrors;
+    private int hitterSize;
+
+    /**
+     * @param width        counters per sketch row, rounded up to a power of two
+     * @param depth        number of sketch rows (independent hashes)
+     * @param heavyHitters number of fingerprints tracked exactly-ish for totals
+     * @param windowMillis length of one rate window
+     */
+    public ErrorFrequencyTable(int width, int depth, int heavyHitters, long windowMillis) {
+        int w = Math.max(16, Integer.highestOneBit(width - 1) << 1);
+        this.depth = depth;
+        this.mask = w - 1;
+        this.windowMillis = windowMillis;
+        this.current = new int[w * depth];
+        this.previous = new int[w * depth];
+        this.hitterKeys = new long[heavyHitters];
+        this.hitterCounts = new long[heavyHitters];
+        this.hitterErrors = new long[heavyHitters];
+    }
+
+    /**
+     * Records one occurrence and returns a running count for the fingerprint,
+     * including this one. While the fingerprint is a heavy hitter this is the
+     * guaranteed part of its decayed total, which rises by exactly one per
+     * call, so every multiple of a reporting interval is seen; otherwise it is
+     * the current window's sketch estimate.
+     */
+    public synchronized long record(long fingerprint, long nowMillis) {
+        rotate(nowMillis);
+        int width = mask + 1;
+        int h1 = (int) fingerprint;
+        int h2 = (int) (fingerprint >>> 32) | 1;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            min = Math.min(min, current[i * width + ((h1 + i * h2) & mask)]);
+        }
+        int updated = min == Integer.MAX_VALUE ? min : min + 1;
+        for (int i = 0; i < depth; i++) {
+            int slot = i * width + ((h1 + i * h2) & mask);
+            if (current[slot] < updated) {
+                current[slot] = updated;
+            }
+        }
+        int index = offerHitter(fingerprint);
+        return index >= 0 ? hitterCounts[index] - hitterErrors[index] : updated;
+    }
+
+    /**
+     * Returns the sliding-window occurrence rate per window (per minute for a
+     * one-minute window): the current window's count plus the still-overlapping
+     * share of the previous window's count.
+     */
+    public synchronized double rate(long fingerprint, long nowMillis) {
+        rotate(nowMillis);
+        double elapsed = Math.min(1.0, (nowMillis - windowStart) / (double) windowMillis);
+        return estimate(current, fingerprint) + estimate(previous, fingerprint) * (1.0 - elapsed);
+    }
+
+    /**
+     * Returns the decayed total for the fingerprint: the guaranteed part of its
+     * heavy-hitter count when tracked, but never less than its count in the
+     * current window.
+     */
+    public synchronized long total(long fingerprint) {
+        long windowCount = estimate(current, fingerprint);
+        int index = indexOfHitter(fingerprint);
+        return index >= 0 ? Math.max(windowCount, hitterCounts[index] - hitterErrors[index]) : windowCount;
+    }
+
+    /**
+     * Returns up to {@code limit} heavy hitters, highest count first.
+     */
+    public synchronized List<HeavyHitter> topHitters(int limit) {
+        Integer[] order = new Integer[hitterSize];
+        for (int i = 0; i < hitterSize; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(hitterCounts[b], hitterCounts[a]));
+        List<HeavyHitter> result = new ArrayList<>(Math.min(limit, hitterSize));
+        for (int i = 0; i < order.length && i < limit; i++) {
+            int idx = order[i];
+            result.add(new HeavyHitter(hitterKeys[idx], hitterCounts[idx], hitterErrors[idx]));
+        }
+        return result;
+    }
+
+    private int estimate(int[] sketch, long fingerprint) {
+        int width = mask + 1;
+        int h1 = (int) fingerprint;
+        int h2 = (int) (fingerprint >>> 32) | 1;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            min = Math.min(min, sketch[i * width + ((h1 + i * h2) & mask)]);
+        }
+        return min;
+    }
+
+    private void rotate(long nowMillis) {
+        if (windowStart == 0L) {
+            windowStart = nowMillis;
+            return;
+        }
+        long elapsed = nowMillis - windowStart;
+        if (elapsed < windowMillis) {
+            return;
+        }
+        int[] recycled = previous;
+        Arrays.fill(recycled, 0);
+        if (elapsed >= 2 * windowMillis) {
+            Arrays.fill(current, 0);
+            windowStart = nowMillis;
+        } else {
+            windowStart += windowMillis;
+        }
+        previous = current;
+        current = recycled;
+        decayHitters();
+    }
+
+    /**
+     * Counts the fingerprint in the heavy-hitter table and returns its index
+     * there, or {@code -1} if the table has no room at all.
+     */
+    private int offerHitter(long fingerprint) {
+        int index = indexOfHitter(fingerprint);
+        if (index >= 0) {
+            hitterCounts[index]++;
+            return index;
+        }
+        if (hitterSize < hitterKeys.length) {
+            hitterKeys[hitterSize] = fingerprint;
+            hitterCounts[hitterSize] = 1;
+            hitterErrors[hitterSize] = 0;
+            return hitterSize++;
+        }
+        if (hitterKeys.length == 0) {
+            return -1;
+        }
+        int min = 0;
+        for (int i = 1; i < hitterSize; i++) {
+            if (hitterCounts[i] < hitterCounts[min]) {
+                min = i;
+            }
+        }
+        hitterKeys[min] = fingerprint;
+        hitterErrors[min] = hitterCounts[min];
+        hitterCounts[min]++;
+        return min;
+    }
+
+    private int indexOfHitter(long fingerprint) {
+        for (int i = 0; i < hitterSize; i++) {
+            if (hitterKeys[i] == fingerprint) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void decayHitters() {
+        int kept = 0;
+        for (int i = 0; i < hitterSize; i++) {
+            long count = hitterCounts[i] >>> 1;
+            if (count == 0) {
+                continue;
+            }
+            hitterKeys[kept] = hitterKeys[i];
+            hitterCounts[kept] = count;
+            hitterErrors[kept] = hitterErrors[i] >>> 1;
+            kept++;
+        }
+        hitterSize = kept;
+    }
+
+    /**
+     * A tracked fingerprint, its decayed count and the maximum over-estimation
+     * of that count inherited from the entry it replaced.
+     */
+    public record HeavyHitter(long fingerprint, long count, long error) {
+    }
+}
@@ -7,11 +7,13 @@ import org.apache.logging.log4j.core.Filter;
 import org.apache.logging.log4j.core.LogEvent;
 import org.apache.logging.log4j.core.filter.AbstractFilter;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class ErrorTracker extends AbstractFilter {
-    private static final ConcurrentHashMap<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+    private static final ErrorFrequencyTable frequencies =
+            new ErrorFrequencyTable(2048, 4, 32, TimeUnit.MINUTES.toMillis(1));
 
     @Override
     public Filter.Result filter(LogEvent event) {
@@ -21,16 +23,36 @@ public class ErrorTracker extends AbstractFilter {
                 // Skip aggregation when the mod's log output is muted in the configuration.
                 return Filter.Result.NEUTRAL;
             }
-            String fp = ErrorFingerprinter.fingerprint(event.getThrown());
-            AtomicInteger c = counts.computeIfAbsent(fp, k -> new AtomicInteger());
-            int count = c.incrementAndGet();
+            long fp = ErrorFingerprinter.fingerprint(event.getThrown());
+            long now = System.currentTimeMillis();
+            long count = frequencies.record(fp, now);
             int interval = DebugConfig.get().loggingErrorReportInterval;
-            if (count % interval == 1) {
-                DebugGuardian.LOGGER.error("[DebugGuardian] Error ({}) occurred {} time(s)", fp, count);
+            // Report the first occurrence and each one that starts a new interval.
+            if ((count - 1) % interval == 0) {
+                DebugGuardian.LOGGER.error("[DebugGuardian] Error ({}) occurred {} time(s) ({}/min)",
+                        ErrorFingerprinter.toHex(fp), frequencies.total(fp),
+                        Math.round(frequencies.rate(fp, now)));
                 return Filter.Result.ACCEPT;
             }
             return Filter.Result.DENY;
         }
         return Filter.Result.NEUTRAL;
     }
+
+    /**
+     * Returns the noisiest error fingerprints, highest decayed total first,
+     * with their current per-minute rate.
+     */
+    public static List<ErrorRate> topErrors(int limit) {
+        long now = System.currentTimeMillis();
+        List<ErrorRate> result = new ArrayList<>();
+        for (ErrorFrequencyTable.HeavyHitter hitter : frequencies.topHitters(limit)) {
+            long fp = hitter.fingerprint();
+            result.add(new ErrorRate(ErrorFingerprinter.toHex(fp), frequencies.rate(fp, now), frequencies.total(fp)));
+        }
+        return result;
+    }
+
+    public record ErrorRate(String fingerprint, double perMinute, long total) {
+    }
 }
@@ -0,0 +1,208 @@
+package com.thunder.debugguardian.debug.external;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import com.thunder.debugguardian.debug.replay.EventJournal;
+import com.thunder.debugguardian.debug.replay.GameEvent;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Decodes a post-mortem flight-recorder journal into JSON.
+ * <p>
+ * The mod calls {@link #recover} on startup when the previous session's
+ * memory-mapped journal was not marked as cleanly shut down: the events are
+ * written next to the journal and a summary is appended to the newest crash
+ * report from that session, if the game got far enough to write one. The
+ * same decoding is available from the command line for journals copied off a
+ * server.
+ * <p>
+ * Events are decoded and serialized one at a time through a {@link JsonWriter},
+ * optionally gzip-compressed, so converting even a very large journal runs in
+ * constant memory.
+ */
+public class PostMortemReader {
+
+    private static final int CRASH_REPORT_EVENTS = 20;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Gson GSON = new Gson();
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: PostMortemReader <journal> [output[.gz]]");
+            return;
+        }
+
+        Path journal = Paths.get(args[0]);
+        Path out = args.length > 1 ? Paths.get(args[1]) : Paths.get(args[0] + ".json");
+        try {
+            EventJournal.Summary summary = writeJson(journal, out, out.toString().endsWith(".gz"), event -> {
+            });
+            System.out.println("Decoded " + summary.events() + " events to " + out);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Decodes {@code journal} into {@code outputDir} and annotates the matching
+     * crash report in {@code crashReportDir}. Returns the journal's summary, or
+     * {@code null} if it was cleanly shut down without a crash report and needs
+     * no recovery.
+     */
+    public static EventJournal.Summary recover(Path journal, Path outputDir, Path crashReportDir, boolean gzip)
+            throws IOException {
+        if (!EventJournal.needsRecovery(journal)) {
+            return null;
+        }
+        Files.createDirectories(outputDir);
+        Path out = outputDir.resolve("postmortem-" + timestamp() + (gzip ? ".json.gz" : ".json"));
+        Deque<GameEvent> last = new ArrayDeque<>(CRASH_REPORT_EVENTS);
+        EventJournal.Summary summary = writeJson(journal, out, gzip, event -> {
+            if (last.size() == CRASH_REPORT_EVENTS) {
+                last.removeFirst();
+            }
+            last.addLast(event);
+        });
+
+        Path report = findCrashReport(crashReportDir, summary.started());
+        if (report != null) {
+            Files.writeString(report, crashReportSection(summary, last, out), StandardOpenOption.APPEND);
+        }
+        return summary;
+    }
+
+    /**
+     * Streams every event of {@code journal} to {@code out} as JSON, also
+     * passing each one to {@code tap}. If the journal turns out to be corrupt
+     * or of another version, the partly written {@code out} is deleted.
+     */
+    public static EventJournal.Summary writeJson(Path journal, Path out, boolean gzip, Consumer<GameEvent> tap)
+            throws IOException {
+        try {
+            return streamJson(journal, out, gzip, tap);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(out);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    private static EventJournal.Summary streamJson(Path journal, Path out, boolean gzip, Consumer<GameEvent> tap)
+            throws IOException {
+        try (JsonWriter writer = new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(open(out, gzip), StandardCharsets.UTF_8), BUFFER_SIZE))) {
+            writer.setIndent("  ");
+            writer.beginObject();
+            writer.name("events").beginArray();
+            EventJournal.Summary summary;
+            try {
+                summary = EventJournal.read(journal, event -> {
+                    try {
+                        writeEvent(writer, event);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    tap.accept(event);
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.endArray();
+            writer.name("started").value(summary.started().toString());
+            writer.name("cleanShutdown").value(summary.cleanShutdown());
+            writer.name("capacity").value(summary.capacity());
+            writer.name("eventCount").value(summary.events());
+            writer.endObject();
+            return summary;
+        }
+    }
+
+    private static OutputStream open(Path out, boolean gzip) throws IOException {
+        OutputStream stream = new BufferedOutputStream(Files.newOutputStream(out), BUFFER_SIZE);
+        return gzip ? new GZIPOutputStream(stream, BUFFER_SIZE) : stream;
+    }
+
+    private static void writeEvent(JsonWriter writer, GameEvent event) throws IOException {
+        writer.beginObject();
+        writer.name("timestamp").value(event.getTimestamp().toString());
+        writer.name("type").value(event.getType().name());
+        writer.name("data");
+        GSON.toJson(event.getData(), event.getData().getClass(), writer);
+        writer.endObject();
+    }
+
+    private static Path findCrashReport(Path dir, Instant since) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return null;
+        }
+        Path newest = null;
+        long newestTime = since.toEpochMilli();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "crash-*.txt")) {
+            for (Path file : stream) {
+                long modified = Files.getLastModifiedTime(file).toMillis();
+                if (modified >= newestTime) {
+                    newest = file;
+                    newestTime = modified;
+                }
+            }
+        }
+        return newest;
+    }
+
+    private static String crashReportSection(EventJournal.Summary summary, Deque<GameEvent> last, Path decoded) {
+        StringBuilder section = new StringBuilder();
+        section.append(System.lineSeparator())
+                .append("-- Debug Guardian post-mortem --").append(System.lineSeparator())
+                .append("Session started: ").append(summary.started()).append(System.lineSeparator())
+                .append("Shutdown state: ").append(summary.cleanShutdown() ? "orderly exit" : "killed")
+                .append(System.lineSeparator())
+                .append("Crash reports generated: ").append(summary.crashReports()).append(System.lineSeparator())
+                .append("Events retained: ").append(summary.events()).append(System.lineSeparator())
+                .append("Full journal: ").append(decoded.toAbsolutePath()).append(System.lineSeparator())
+                .append("Last events:").append(System.lineSeparator());
+        for (GameEvent event : last) {
+            section.append('\t').append(event.getTimestamp()).append(' ').append(event.getType()).append(' ')
+                    .append(describe(event.getData())).append(System.lineSeparator());
+        }
+        return section.toString();
+    }
+
+    private static String describe(GameEvent.GameEventPayload payload) {
+        return switch (payload) {
+            case GameEvent.TickEventPayload p -> p.side() + " " + p.phase() + " gameTime=" + p.gameTime()
+                    + " dimension=" + p.dimension();
+            case GameEvent.EntitySpawnPayload p -> p.entityType() + " at "
+                    + String.format(Locale.ROOT, "%.1f,%.1f,%.1f", p.x(), p.y(), p.z())
+                    + " dimension=" + p.dimension();
+            case GameEvent.CommandPayload p -> p.sourceName() + ": " + p.command();
+            case GameEvent.PacketPayload p -> p.direction() + " " + p.channel() + " " + p.payloadSize() + "B";
+        };
+    }
+
+    private static String timestamp() {
+        return LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+    }
+}
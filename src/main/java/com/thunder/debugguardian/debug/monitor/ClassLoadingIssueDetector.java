@@ -1,23 +1,13 @@
 package com.thunder.debugguardian.debug.monitor;
 
-import net.neoforged.fml.ModList;
-import net.neoforged.neoforgespi.language.IModInfo;
-
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.security.CodeSource;
-import java.util.Enumeration;
-import java.util.Locale;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
-
 /**
  * Attempts to identify which mod is responsible for a crash or
  * class-loading issue by inspecting the stack trace.
  */
 public class ClassLoadingIssueDetector {
+    private static final AttributionCache CLASS_OWNERS = new AttributionCache(8192);
+    private static final AttributionCache LOGGER_OWNERS = new AttributionCache(1024);
+
     /**
      * Scans the throwable’s stack trace and returns the first modId
      * whose package or code source matches a frame, or "Unknown".
@@ -31,7 +21,7 @@ public class ClassLoadingIssueDetector {
         if (t instanceof NoClassDefFoundError || t instanceof ClassNotFoundException) {
             String missing = t.getMessage();
             if (missing != null) {
-                String deep = scanForMissingClass(missing.replace('.', '/'));
+                String deep = scanForMissingClass(toInternalName(missing));
                 if (deep != null) {
                     return deep;
                 }
@@ -48,29 +38,34 @@ public class ClassLoadingIssueDetector {
     public static String identifyCulpritMod(StackTraceElement[] stack) {
         if (stack == null) return "Unknown";
         for (StackTraceElement ste : stack) {
-            String cls = ste.getClassName();
-            String clsLower = cls.toLowerCase(Locale.ROOT);
-
-            // first try to match mod id within the package name
-            for (IModInfo mod : ModList.get().getMods()) {
-                String modId = mod.getModId();
-                String modLower = modId.toLowerCase(Locale.ROOT);
-                if (clsLower.startsWith(modLower + ".")
-                        || clsLower.contains("." + modLower + ".")
-                        || clsLower.endsWith("." + modLower)) {
-                    return modId;
-                }
-            }
-
-            // fall back to looking up the jar file
-            String modId = findByCodeSource(cls);
-            if (modId != null) {
+            String modId = identifyClassOwner(ste.getClassName());
+            if (!"Unknown".equals(modId)) {
                 return modId;
             }
         }
         return "Unknown";
     }
 
+    /**
+     * Returns the mod that ships the given class, first matching the mod id
+     * against the package name and then consulting the startup-built class
+     * index. Returns "Unknown" when no mod claims the class.
+     */
+    public static String identifyClassOwner(String className) {
+        if (className == null) {
+            return "Unknown";
+        }
+        if (!ModClassIndex.isBuilt()) {
+            // Do not memoize answers produced before the mod list was indexed.
+            String modId = ModClassIndex.get().findOwner(className);
+            return modId != null ? modId : "Unknown";
+        }
+        return CLASS_OWNERS.get(className, name -> {
+            String modId = ModClassIndex.get().findOwner(name);
+            return modId != null ? modId : "Unknown";
+        });
+    }
+
     /**
      * Attempts to identify a mod based on the logger name associated with a log event.
      * Many mods use either their mod id or a package containing the mod id as the logger.
@@ -79,18 +74,32 @@ public class ClassLoadingIssueDetector {
         if (loggerName == null || loggerName.isEmpty()) {
             return "Unknown";
         }
-        String lower = loggerName.toLowerCase(Locale.ROOT);
-        for (IModInfo mod : ModList.get().getMods()) {
-            String modId = mod.getModId();
-            String modLower = modId.toLowerCase(Locale.ROOT);
-            if (lower.equals(modLower)
-                    || lower.startsWith(modLower + ".")
-                    || lower.contains("." + modLower + ".")
-                    || lower.endsWith("." + modLower)) {
-                return modId;
-            }
+        if (!ModClassIndex.isBuilt()) {
+            String modId = ModClassIndex.get().findBySegment(loggerName);
+            return modId != null ? modId : "Unknown";
         }
-        return "Unknown";
+        return LOGGER_OWNERS.get(loggerName, name -> {
+            String modId = ModClassIndex.get().findBySegment(name);
+            return modId != null ? modId : "Unknown";
+        });
+    }
+
+    /**
+     * Returns hit/miss counters for the shared per-class attribution cache used
+     * by every monitor that resolves stack frames to mods.
+     */
+    public static AttributionCache.Stats classCacheStats() {
+        return CLASS_OWNERS.stats();
+    }
+
+    /**
+     * Builds the class-to-mod index ahead of time so the first attribution
+     * request does not pay for it, and starts the class reference index in
+     * the background.
+     */
+    public static void buildIndex() {
+        ModClassIndex.get();
+        ClassReferenceIndex.start();
     }
 
     /**
@@ -103,7 +112,7 @@ public class ClassLoadingIssueDetector {
             return null;
         }
         for (StackTraceElement ste : stack) {
-            if (!"Unknown".equals(identifyCulpritMod(new StackTraceElement[]{ste}))) {
+            if (!"Unknown".equals(identifyClassOwner(ste.getClassName()))) {
                 return ste;
             }
         }
@@ -121,61 +130,27 @@ public class ClassLoadingIssueDetector {
         return stack[0];
     }
 
-    private static String findByCodeSource(String clsName) {
-        try {
-            Class<?> cls = Class.forName(clsName);
-            CodeSource src = cls.getProtectionDomain().getCodeSource();
-            if (src == null) return null;
-            Path path = normalizePath(Path.of(src.getLocation().toURI()));
-            for (IModInfo mod : ModList.get().getMods()) {
-                Path modPath = normalizePath(mod.getOwningFile().getFile().getFilePath());
-                if (path.equals(modPath)) {
-                    return mod.getModId();
-                }
-                if (Files.isDirectory(modPath) && path.startsWith(modPath)) {
-                    return mod.getModId();
-                }
-                if (!Files.isDirectory(modPath)
-                        && path.getFileName() != null
-                        && path.getFileName().equals(modPath.getFileName())) {
-                    return mod.getModId();
-                }
-            }
-        } catch (Exception ignored) {
-        }
-        return null;
-    }
-
-    private static Path normalizePath(Path path) {
-        try {
-            return path.toRealPath();
-        } catch (Exception ignored) {
-            return path.normalize().toAbsolutePath();
-        }
+    /**
+     * As a last resort, look up which mod's classes reference the missing class
+     * name. The reference index is built once from the mods' constant pools and
+     * persisted between launches, so repeated lookups cost a binary search per
+     * mod file rather than a rescan of every jar. Lookups made before the index
+     * is ready find nothing.
+     */
+    private static String scanForMissingClass(String missingInternal) {
+        return ClassReferenceIndex.findReferencingMod(missingInternal);
     }
 
     /**
-     * As a last resort, search each mod jar for references to the missing class
-     * name. This is a heuristic and may produce false positives but can help
-     * pinpoint the culprit when the stack trace is inconclusive.
+     * Extracts the class name from messages such as {@code com/example/Foo} or
+     * {@code Could not initialize class com.example.Foo} in internal form.
      */
-    private static String scanForMissingClass(String missingInternal) {
-        for (IModInfo mod : ModList.get().getMods()) {
-            try (JarFile jar = new JarFile(mod.getOwningFile().getFile().getFilePath().toFile())) {
-                Enumeration<JarEntry> entries = jar.entries();
-                while (entries.hasMoreElements()) {
-                    JarEntry entry = entries.nextElement();
-                    if (!entry.getName().endsWith(".class")) continue;
-                    try (InputStream in = jar.getInputStream(entry)) {
-                        String content = new String(in.readAllBytes(), StandardCharsets.ISO_8859_1);
-                        if (content.contains(missingInternal)) {
-                            return mod.getModId();
-                        }
-                    }
-                }
-            } catch (Exception ignored) {
-            }
+    private static String toInternalName(String message) {
+        String name = message.trim();
+        int space = name.lastIndexOf(' ');
+        if (space >= 0) {
+            name = name.substring(space + 1);
         }
-        return null;
+        return name.replace('.', '/');
     }
 }
@@ -0,0 +1,400 @@
+package com.thunder.debugguardian.debug.monitor;
+
+import com.thunder.debugguardian.DebugGuardian;
+import net.neoforged.fml.ModList;
+import net.neoforged.fml.loading.FMLPaths;
+import net.neoforged.neoforgespi.language.IModInfo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Index of the classes each mod file references through its constant pools.
+ * <p>
+ * The index is started in the background at common setup and lookups never
+ * wait for it: until it is ready, missing classes are simply not attributed.
+ * Mod files are parsed in parallel and each file's reference list is persisted
+ * under {@code debugguardian/cache/class-references}, keyed by path and
+ * invalidated when the file's size or modification time changes. Later boots
+ * only re-read changed jars and queries are a binary search per mod file.
+ */
+final class ClassReferenceIndex {
+    private static final Path CACHE_DIR = FMLPaths.GAMEDIR.get()
+            .resolve("debugguardian").resolve("cache").resolve("class-references");
+    private static final int CACHE_MAGIC = 0x44474352; // "DGCR"
+    private static final int CACHE_VERSION = 1;
+
+    private static final Object LOCK = new Object();
+    private static volatile CompletableFuture<ClassReferenceIndex> future;
+
+    private final List<ModReferences> mods;
+
+    private ClassReferenceIndex(List<ModReferences> mods) {
+        this.mods = mods;
+    }
+
+    /**
+     * Returns the first mod (in mod list order) whose classes reference the given
+     * internal class name, or {@code null}. Returns {@code null} at once while
+     * the index is still building rather than stalling the calling (usually
+     * logging) thread.
+     */
+    static String findReferencingMod(String internalName) {
+        CompletableFuture<ClassReferenceIndex> pending = start();
+        if (pending == null || pending.isCompletedExceptionally()) {
+            return null;
+        }
+        if (!pending.isDone()) {
+            DebugGuardian.LOGGER.debug("Class reference index still building; skipping lookup for {}", internalName);
+            return null;
+        }
+        ClassReferenceIndex index = pending.join();
+        for (ModReferences mod : index.mods) {
+            if (Arrays.binarySearch(mod.references, internalName) >= 0) {
+                return mod.modId;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Starts building the index in the background if it has not been started
+     * yet, and returns it; {@code null} if the mod list is not available yet.
+     */
+    static CompletableFuture<ClassReferenceIndex> start() {
+        CompletableFuture<ClassReferenceIndex> current = future;
+        if (current != null) {
+            return current;
+        }
+        synchronized (LOCK) {
+            if (future == null) {
+                ModList modList = ModList.get();
+                if (modList == null) {
+                    return null;
+                }
+                Map<Path, String> files = new LinkedHashMap<>();
+                for (IModInfo mod : modList.getMods()) {
+                    try {
+                        files.putIfAbsent(mod.getOwningFile().getFile().getFilePath(), mod.getModId());
+                    } catch (Exception ignored) {
+                    }
+                }
+                future = build(files);
+            }
+            return future;
+        }
+    }
+
+    /**
+     * Scans the mod files on a pool of worker threads. The index is assembled
+     * by whichever worker finishes last, and the pool is shut down once it is.
+     */
+    private static CompletableFuture<ClassReferenceIndex> build(Map<Path, String> files) {
+        long started = System.nanoTime();
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+        ExecutorService pool = daemonExecutor("debugguardian-class-refs", threads);
+        Map<String, String> names = new ConcurrentHashMap<>();
+        Set<String> cacheFiles = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<ModReferences>> tasks = new ArrayList<>();
+        for (Map.Entry<Path, String> entry : files.entrySet()) {
+            tasks.add(CompletableFuture.supplyAsync(
+                    () -> loadOrScan(entry.getKey(), entry.getValue(), names, cacheFiles), pool));
+        }
+        return CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    List<ModReferences> mods = new ArrayList<>();
+                    for (CompletableFuture<ModReferences> task : tasks) {
+                        ModReferences refs = task.join();
+                        if (refs != null) {
+                            mods.add(refs);
+                        }
+                    }
+                    pruneStaleCacheFiles(cacheFiles);
+                    DebugGuardian.LOGGER.debug(
+                            "Class reference index built for {} mod files ({} distinct names) in {} ms",
+                            mods.size(), names.size(), (System.nanoTime() - started) / 1_000_000);
+                    return new ClassReferenceIndex(List.copyOf(mods));
+                })
+                .whenComplete((index, failure) -> pool.shutdown());
+    }
+
+    private static ModReferences loadOrScan(Path modPath, String modId, Map<String, String> names, Set<String> cacheFiles) {
+        try {
+            boolean cacheable = !Files.isDirectory(modPath) && modPath.getFileSystem() == FileSystems.getDefault();
+            if (!cacheable) {
+                return new ModReferences(modId, scan(modPath, names));
+            }
+            long size = Files.size(modPath);
+            long modified = Files.getLastModifiedTime(modPath).toMillis();
+            String key = modPath.toAbsolutePath().toString();
+            Path cacheFile = CACHE_DIR.resolve(cacheFileName(modPath, key));
+            cacheFiles.add(cacheFile.getFileName().toString());
+            String[] cached = readCache(cacheFile, key, size, modified, names);
+            if (cached != null) {
+                return new ModReferences(modId, cached);
+            }
+            String[] scanned = scan(modPath, names);
+            writeCache(cacheFile, key, size, modified, scanned);
+            return new ModReferences(modId, scanned);
+        } catch (Exception e) {
+            DebugGuardian.LOGGER.debug("Could not index class references for mod {}: {}", modId, e.toString());
+            return null;
+        }
+    }
+
+    private static String[] scan(Path modPath, Map<String, String> names) throws IOException {
+        Set<String> refs = new HashSet<>();
+        if (Files.isDirectory(modPath)) {
+            scanTree(modPath, refs);
+        } else if (modPath.getFileSystem() == FileSystems.getDefault()) {
+            try (JarFile jar = new JarFile(modPath.toFile())) {
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    JarEntry entry = entries.nextElement();
+                    if (!entry.getName().endsWith(".class")) continue;
+                    try (InputStream in = jar.getInputStream(entry)) {
+                        ConstantPoolReader.collectClassReferences(in.readAllBytes(), refs);
+                    }
+                }
+            }
+        } else {
+            try (FileSystem fs = FileSystems.newFileSystem(modPath)) {
+                for (Path root : fs.getRootDirectories()) {
+                    scanTree(root, refs);
+                }
+            }
+        }
+        return toSortedArray(refs, names);
+    }
+
+    private static void scanTree(Path root, Set<String> refs) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.toString().endsWith(".class") && Files.isRegularFile(file)) {
+                    ConstantPoolReader.collectClassReferences(Files.readAllBytes(file), refs);
+                }
+            }
+        }
+    }
+
+    private static String[] toSortedArray(Set<String> refs, Map<String, String> names) {
+        String[] array = new String[refs.size()];
+        int i = 0;
+        for (String ref : refs) {
+            array[i++] = names.computeIfAbsent(ref, k -> k);
+        }
+        Arrays.sort(array);
+        return array;
+    }
+
+    private static String cacheFileName(Path modPath, String key) {
+        String fileName = modPath.getFileName() != null ? modPath.getFileName().toString() : "mod";
+        return fileName.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + Integer.toHexString(key.hashCode()) + ".refs";
+    }
+
+    private static String[] readCache(Path cacheFile, String key, long size, long modified, Map<String, String> names) {
+        if (Files.notExists(cacheFile)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (in.readInt() != CACHE_MAGIC || in.readInt() != CACHE_VERSION) {
+                return null;
+            }
+            if (!key.equals(in.readUTF()) || in.readLong() != size || in.readLong() != modified) {
+                return null;
+            }
+            int count = in.readInt();
+            String[] refs = new String[count];
+            for (int i = 0; i < count; i++) {
+                String ref = in.readUTF();
+                refs[i] = names.computeIfAbsent(ref, k -> k);
+            }
+            return refs;
+        } catch (IOException e) {
+            DebugGuardian.LOGGER.debug("Discarding unreadable class reference cache {}: {}", cacheFile, e.toString());
+            return null;
+        }
+    }
+
+    private static void writeCache(Path cacheFile, String key, long size, long modified, String[] refs) {
+        try {
+            Files.createDirectories(CACHE_DIR);
+            Path tmp = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(CACHE_MAGIC);
+                out.writeInt(CACHE_VERSION);
+                out.writeUTF(key);
+                out.writeLong(size);
+                out.writeLong(modified);
+                out.writeInt(refs.length);
+                for (String ref : refs) {
+                    out.writeUTF(ref);
+                }
+            }
+            Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            DebugGuardian.LOGGER.debug("Failed to persist class reference cache {}: {}", cacheFile, e.toString());
+        }
+    }
+
+    private static void pruneStaleCacheFiles(Set<String> inUse) {
+        if (Files.notExists(CACHE_DIR)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(CACHE_DIR)) {
+            files.filter(p -> !inUse.contains(p.getFileName().toString()))
+                    .forEach(p -> {
+                        try {
+                            Files.deleteIfExists(p);
+                        } catch (IOException ignored) {
+                        }
+                    });
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static ExecutorService daemonExecutor(String name, int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, threads == 1 ? name : name + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    private record ModReferences(String modId, String[] references) {
+    }
+
+    /**
+     * Minimal class-file constant pool reader that extracts every class name a
+     * class refers to, either directly or through field/method descriptors and
+     * generic signatures.
+     */
+    static final class ConstantPoolReader {
+        private ConstantPoolReader() {
+        }
+
+        static void collectClassReferences(byte[] data, Set<String> out) {
+            if (data.length < 10 || readInt(data, 0) != 0xCAFEBABE) {
+                return;
+            }
+            int count = readShort(data, 8);
+            int[] utf8Offsets = new int[count];
+            boolean[] classNames = new boolean[count];
+            int pos = 10;
+            try {
+                for (int i = 1; i < count; i++) {
+                    int tag = data[pos] & 0xFF;
+                    switch (tag) {
+                        case 1 -> {
+                            utf8Offsets[i] = pos + 1;
+                            pos += 3 + readShort(data, pos + 1);
+                        }
+                        case 7 -> {
+                            classNames[readShort(data, pos + 1)] = true;
+                            pos += 3;
+                        }
+                        case 8, 16, 19, 20 -> pos += 3;
+                        case 15 -> pos += 4;
+                        case 3, 4, 9, 10, 11, 12, 17, 18 -> pos += 5;
+                        case 5, 6 -> {
+                            pos += 9;
+                            i++;
+                        }
+                        default -> {
+                            return;
+                        }
+                    }
+                }
+            } catch (ArrayIndexOutOfBoundsException e) {
+                return;
+            }
+            for (int i = 1; i < count; i++) {
+                int offset = utf8Offsets[i];
+                // Skip truncated constants rather than lose the mod's other references.
+                if (offset == 0 || offset + 2 > data.length) {
+                    continue;
+                }
+                int length = readShort(data, offset);
+                int start = offset + 2;
+                if (length == 0 || start + length > data.length) {
+                    continue;
+                }
+                if (classNames[i] && data[start] != '[') {
+                    out.add(new String(data, start, length, StandardCharsets.UTF_8));
+                } else if (containsDescriptor(data, start, length)) {
+                    extractDescriptors(new String(data, start, length, StandardCharsets.UTF_8), out);
+                }
+            }
+        }
+
+        private static boolean containsDescriptor(byte[] data, int start, int length) {
+            boolean sawL = false;
+            for (int i = start; i < start + length; i++) {
+                byte b = data[i];
+                if (b == 'L') {
+                    sawL = true;
+                } else if (b == ';' && sawL) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static void extractDescriptors(String text, Set<String> out) {
+            int idx = 0;
+            while ((idx = text.indexOf('L', idx)) >= 0) {
+                int end = idx + 1;
+                while (end < text.length()) {
+                    char c = text.charAt(end);
+                    if (c == ';' || c == '<' || c == '(' || c == ')' || c == '[' || c == ' ') {
+                        break;
+                    }
+                    end++;
+                }
+                if (end < text.length() && end > idx + 1 && (text.charAt(end) == ';' || text.charAt(end) == '<')) {
+                    String name = text.substring(idx + 1, end);
+                    if (name.indexOf('/') > 0) {
+                        out.add(name);
+                    }
+                }
+                idx = end;
+            }
+        }
+
+        private static int readShort(byte[] data, int pos) {
+            return ((data[pos] & 0xFF) << 8) | (data[pos + 1] & 0xFF);
+        }
+
+        private static int readInt(byte[] data, int pos) {
+            return (readShort(data, pos) << 16) | readShort(data, pos + 2);
+        }
+    }
+}
@@ -12,8 +12,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -30,7 +28,7 @@ public final class CrashRiskMonitor {
 
     private static final Map<String, Symptom> SYMPTOMS = new ConcurrentHashMap<>();
 
-    private static ScheduledExecutorService executor;
+    private static MonitorScheduler.Registration task;
     private static volatile long lastAlert;
 
     private CrashRiskMonitor() {
@@ -44,15 +42,10 @@ public final class CrashRiskMonitor {
             return;
         }
         synchronized (CrashRiskMonitor.class) {
-            if (executor != null && !executor.isShutdown()) {
+            if (task != null && !task.isCancelled()) {
                 return;
             }
-            executor = Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread t = new Thread(r, "debugguardian-crash-risk");
-                t.setDaemon(true);
-                return t;
-            });
-            executor.scheduleAtFixedRate(CrashRiskMonitor::evaluate, 30, 30, TimeUnit.SECONDS);
+            task = MonitorScheduler.schedule("crash-risk", CrashRiskMonitor::evaluate, 30, 30, TimeUnit.SECONDS);
         }
     }
 
@@ -61,9 +54,9 @@ public final class CrashRiskMonitor {
      */
     public static void stop() {
         synchronized (CrashRiskMonitor.class) {
-            if (executor != null) {
-                executor.shutdownNow();
-                executor = null;
+            if (task != null) {
+                task.cancel(true);
+                task = null;
             }
         }
         SYMPTOMS.clear();
@@ -14,8 +14,6 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -26,7 +24,7 @@ public final class DeadlockDetector {
     private static final Path DUMP_DIR = FMLPaths.GAMEDIR.get().resolve("debugguardian");
     private static final long CHECK_INTERVAL_SECONDS = 10L;
 
-    private static ScheduledExecutorService executor;
+    private static MonitorScheduler.Registration task;
     private static volatile boolean reported;
 
     private DeadlockDetector() {
@@ -34,24 +32,19 @@ public final class DeadlockDetector {
 
     public static void start() {
         synchronized (DeadlockDetector.class) {
-            if (executor != null && !executor.isShutdown()) {
+            if (task != null && !task.isCancelled()) {
                 return;
             }
-            executor = Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread t = new Thread(r, "debugguardian-deadlock");
-                t.setDaemon(true);
-                return t;
-            });
-            executor.scheduleAtFixedRate(DeadlockDetector::checkDeadlock,
+            task = MonitorScheduler.schedule("deadlock", DeadlockDetector::checkDeadlock,
                     CHECK_INTERVAL_SECONDS, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
         }
     }
 
     public static void stop() {
         synchronized (DeadlockDetector.class) {
-            if (executor != null) {
-                executor.shutdownNow();
-                executor = null;
+            if (task != null) {
+                task.cancel(true);
+                task = null;
             }
         }
         reported = false;
@@ -0,0 +1,129 @@
+package com.thunder.debugguardian.debug.monitor;
+
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.server.ServerAboutToStartEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+
+import static com.thunder.debugguardian.DebugGuardian.MOD_ID;
+
+/**
+ * Remembers the server and render threads so detectors can sample just those
+ * threads with {@link ThreadMXBean#getThreadInfo(long, int)} instead of
+ * capturing every stack in the JVM to find them by name.
+ * <p>
+ * The server thread is taken from {@link ServerAboutToStartEvent}, which runs
+ * on that thread before the level and spawn chunks load, and the render
+ * thread from the first client tick. Until then, a name lookup over thread
+ * ids (without stacks) is used as a fallback; a miss is retried at most every
+ * {@value #LOOKUP_RETRY_MS} ms rather than on every check.
+ */
+@EventBusSubscriber(modid = MOD_ID)
+public final class GameThreads {
+    private static final ThreadMXBean BEAN = ManagementFactory.getThreadMXBean();
+    private static final long LOOKUP_RETRY_MS = 5000;
+
+    private static volatile long serverThreadId = -1;
+    private static volatile long renderThreadId = -1;
+    /** Earliest {@link System#nanoTime()} at which a missed server lookup is retried. */
+    private static volatile long nextServerLookup = System.nanoTime();
+
+    private GameThreads() {
+    }
+
+    @SubscribeEvent
+    public static void onServerAboutToStart(ServerAboutToStartEvent event) {
+        serverThreadId = event.getServer().getRunningThread().threadId();
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        serverThreadId = -1;
+        nextServerLookup = System.nanoTime() + LOOKUP_RETRY_MS * 1_000_000L;
+    }
+
+    /**
+     * Records the calling thread as the render thread; called on the first client tick.
+     */
+    public static void captureRenderThread() {
+        if (renderThreadId < 0) {
+            renderThreadId = Thread.currentThread().threadId();
+        }
+    }
+
+    public static boolean isRenderThreadCaptured() {
+        return renderThreadId >= 0;
+    }
+
+    /**
+     * Returns the server thread's id, or {@code -1} if no server is running.
+     */
+    public static long serverThreadId() {
+        long id = serverThreadId;
+        if (id < 0) {
+            long now = System.nanoTime();
+            if (now - nextServerLookup < 0) {
+                return -1;
+            }
+            nextServerLookup = now + LOOKUP_RETRY_MS * 1_000_000L;
+            id = findThreadId("Server thread");
+            if (id >= 0) {
+                serverThreadId = id;
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Returns the render (client main) thread's id, or {@code -1} if unknown.
+     */
+    public static long renderThreadId() {
+        long id = renderThreadId;
+        if (id < 0) {
+            id = findThreadId("Render thread", "main");
+            if (id >= 0) {
+                renderThreadId = id;
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Samples a single thread. Returns {@code null} if the id is unknown or the
+     * thread has exited; a stale cached id is forgotten in that case.
+     */
+    public static ThreadInfo threadInfo(long threadId, int maxDepth) {
+        if (threadId < 0) {
+            return null;
+        }
+        ThreadInfo info = BEAN.getThreadInfo(threadId, maxDepth);
+        if (info == null) {
+            if (threadId == serverThreadId) {
+                serverThreadId = -1;
+            }
+            if (threadId == renderThreadId) {
+                renderThreadId = -1;
+            }
+        }
+        return info;
+    }
+
+    /**
+     * Looks up a live thread by name without capturing any stacks.
+     */
+    static long findThreadId(String... names) {
+        ThreadInfo[] infos = BEAN.getThreadInfo(BEAN.getAllThreadIds(), 0);
+        for (String name : names) {
+            for (ThreadInfo info : infos) {
+                if (info != null && name.equals(info.getThreadName())) {
+                    return info.getThreadId();
+                }
+            }
+        }
+        return -1;
+    }
+}
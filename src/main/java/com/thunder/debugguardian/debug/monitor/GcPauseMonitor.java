@@ -6,9 +6,6 @@ import com.thunder.debugguardian.debug.monitor.CrashRiskMonitor;
 
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -16,17 +13,15 @@ import java.util.concurrent.TimeUnit;
  * or misbehaving mods causing frequent full GCs.
  */
 public class GcPauseMonitor {
-    private static final String THREAD_NAME = "debugguardian-gc-monitor";
+    private static final String TASK_NAME = "gc-pause";
     private static long lastGcTime = 0;
-    private static ScheduledExecutorService scheduler;
-    private static ScheduledFuture<?> scheduledTask;
+    private static MonitorScheduler.Registration scheduledTask;
 
     public static synchronized void start() {
         if (!DebugConfig.get().gcPauseMonitorEnable) {
             stop();
             return;
         }
-        ensureScheduler();
         reschedule();
     }
 
@@ -35,7 +30,7 @@ public class GcPauseMonitor {
             stop();
             return;
         }
-        if (scheduler == null || scheduler.isShutdown()) {
+        if (scheduledTask == null) {
             return;
         }
         reschedule();
@@ -46,29 +41,16 @@ public class GcPauseMonitor {
             scheduledTask.cancel(true);
             scheduledTask = null;
         }
-        if (scheduler != null) {
-            scheduler.shutdownNow();
-            scheduler = null;
-        }
         lastGcTime = 0;
     }
 
-    private static void ensureScheduler() {
-        if (scheduler == null || scheduler.isShutdown()) {
-            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread t = new Thread(r, THREAD_NAME);
-                t.setDaemon(true);
-                return t;
-            });
-        }
-    }
-
     private static void reschedule() {
         long interval = Math.max(1, DebugConfig.get().gcPauseCheckIntervalSeconds);
         if (scheduledTask != null && !scheduledTask.isCancelled()) {
             scheduledTask.cancel(false);
         }
-        scheduledTask = scheduler.scheduleAtFixedRate(
+        scheduledTask = MonitorScheduler.schedule(
+                TASK_NAME,
                 GcPauseMonitor::checkGcPauses,
                 interval,
                 interval,
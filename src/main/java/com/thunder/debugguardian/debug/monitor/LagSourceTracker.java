@@ -0,0 +1,222 @@
+package com.thunder.debugguardian.debug.monitor;
+
+import com.thunder.debugguardian.DebugGuardian;
+import com.thunder.debugguardian.config.DebugConfig;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Opt-in accounting of entity and block entity tick cost.
+ * <p>
+ * When enabled, {@code ServerLevelMixin} and {@code BoundTickingBlockEntityMixin}
+ * time every server-side entity tick and block entity ticker call and hand the
+ * duration to {@link #recordEntity} or {@link #recordBlockEntity}. Each
+ * {@code EntityType} and {@code BlockEntityType} is assigned a slot the first
+ * time it ticks, with its registry id and owning mod resolved at that point, so
+ * recording is one map lookup and two array adds. Types that share an
+ * implementing class are still counted separately. Counters are striped by thread
+ * so mods that tick levels off the server thread do not contend.
+ * <p>
+ * Once a minute the counters are drained into a top-N table of types and mods
+ * in the performance snapshot log, and a type that uses a dominant share of the
+ * server tick is reported to {@link CrashRiskMonitor}.
+ */
+public final class LagSourceTracker {
+    private static final long REPORT_INTERVAL_SECONDS = 60;
+    private static final int MAX_SLOTS = 2048;
+    private static final int STRIPES = 4;
+    /** Shared by types seen after every slot has been assigned. */
+    private static final int OVERFLOW_SLOT = MAX_SLOTS - 1;
+
+    private static final AtomicInteger NEXT_SLOT = new AtomicInteger();
+    private static final AtomicReferenceArray<Source> SOURCES = new AtomicReferenceArray<>(MAX_SLOTS);
+    /** Slot per type object; entity and block entity types never override equals. */
+    private static final Map<Object, Integer> SLOTS = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled;
+    private static AtomicLongArray[] stripes;
+    private static MonitorScheduler.Registration task;
+    private static long lastTickNanos;
+
+    private LagSourceTracker() {
+    }
+
+    public static synchronized void start() {
+        if (task != null) {
+            return;
+        }
+        if (stripes == null) {
+            stripes = new AtomicLongArray[STRIPES];
+            for (int i = 0; i < STRIPES; i++) {
+                // [slot * 2] = nanoseconds, [slot * 2 + 1] = calls
+                stripes[i] = new AtomicLongArray(MAX_SLOTS * 2);
+            }
+        }
+        lastTickNanos = TickPhaseTimer.cumulativeTickNanos();
+        task = MonitorScheduler.schedule("lag-sources", LagSourceTracker::report,
+                REPORT_INTERVAL_SECONDS, REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        enabled = true;
+    }
+
+    public static synchronized void stop() {
+        enabled = false;
+        if (task != null) {
+            task.cancel(true);
+            task = null;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void recordEntity(Entity entity, long nanos) {
+        EntityType<?> type = entity.getType();
+        Integer slot = SLOTS.get(type);
+        if (slot == null) {
+            slot = SLOTS.computeIfAbsent(type, t -> assignSlot(
+                    "entity", BuiltInRegistries.ENTITY_TYPE.getKey(type), entity.getClass()));
+        }
+        add(slot, nanos);
+    }
+
+    public static void recordBlockEntity(BlockEntity blockEntity, long nanos) {
+        BlockEntityType<?> type = blockEntity.getType();
+        Integer slot = SLOTS.get(type);
+        if (slot == null) {
+            slot = SLOTS.computeIfAbsent(type, t -> assignSlot(
+                    "block_entity", BuiltInRegistries.BLOCK_ENTITY_TYPE.getKey(type), blockEntity.getClass()));
+        }
+        add(slot, nanos);
+    }
+
+    /**
+     * Assigns the next free slot to a type. The owning mod is the registry
+     * namespace, falling back to the implementing class's owner for types that
+     * are not registered.
+     */
+    private static int assignSlot(String kind, ResourceLocation id, Class<?> implementation) {
+        int slot = NEXT_SLOT.getAndIncrement();
+        if (slot >= OVERFLOW_SLOT) {
+            SOURCES.compareAndSet(OVERFLOW_SLOT, null, new Source("mixed", "other", "Unknown"));
+            return OVERFLOW_SLOT;
+        }
+        String className = implementation.getName();
+        String label = id != null ? id.toString() : className;
+        String mod = id != null ? id.getNamespace() : ClassLoadingIssueDetector.identifyClassOwner(className);
+        SOURCES.set(slot, new Source(kind, label, mod));
+        return slot;
+    }
+
+    private static void add(int slot, long nanos) {
+        AtomicLongArray[] current = stripes;
+        if (current == null) {
+            return;
+        }
+        AtomicLongArray stripe = current[(int) Thread.currentThread().threadId() & (STRIPES - 1)];
+        stripe.getAndAdd(slot * 2, nanos);
+        stripe.getAndAdd(slot * 2 + 1, 1L);
+    }
+
+    private static void report() {
+        long tickNanos = TickPhaseTimer.cumulativeTickNanos();
+        long windowTickNanos = tickNanos - lastTickNanos;
+        lastTickNanos = tickNanos;
+
+        int used = Math.min(NEXT_SLOT.get(), MAX_SLOTS);
+        List<Sample> samples = new ArrayList<>();
+        Map<String, long[]> byMod = new HashMap<>();
+        for (int slot = 0; slot < used; slot++) {
+            long nanos = 0;
+            long calls = 0;
+            for (AtomicLongArray stripe : stripes) {
+                nanos += stripe.getAndSet(slot * 2, 0L);
+                calls += stripe.getAndSet(slot * 2 + 1, 0L);
+            }
+            Source source = SOURCES.get(slot);
+            if (calls == 0 || source == null) {
+                continue;
+            }
+            samples.add(new Sample(source, nanos, calls));
+            byMod.computeIfAbsent(source.mod(), k -> new long[1])[0] += nanos;
+        }
+        if (samples.isEmpty() || windowTickNanos <= 0) {
+            return;
+        }
+        samples.sort(Comparator.comparingLong(Sample::nanos).reversed());
+
+        DebugConfig config = DebugConfig.get();
+        String timestamp = DateTimeFormatter.ISO_INSTANT.format(Instant.now());
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < samples.size() && i < config.lagSourceTopN; i++) {
+            Sample sample = samples.get(i);
+            lines.add(String.format(
+                    Locale.ROOT,
+                    "[%s] side=server lagSource=%s kind=%s mod=%s calls=%d totalMs=%.2f avgUs=%.2f tickShare=%.1f%%",
+                    timestamp,
+                    sample.source().label(),
+                    sample.source().kind(),
+                    sample.source().mod(),
+                    sample.calls(),
+                    sample.nanos() / 1_000_000.0,
+                    sample.nanos() / 1_000.0 / sample.calls(),
+                    sample.nanos() * 100.0 / windowTickNanos
+            ));
+        }
+        List<Map.Entry<String, long[]>> mods = new ArrayList<>(byMod.entrySet());
+        mods.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        for (int i = 0; i < mods.size() && i < config.lagSourceTopN; i++) {
+            long nanos = mods.get(i).getValue()[0];
+            lines.add(String.format(
+                    Locale.ROOT,
+                    "[%s] side=server lagSourceMod=%s totalMs=%.2f tickShare=%.1f%%",
+                    timestamp,
+                    mods.get(i).getKey(),
+                    nanos / 1_000_000.0,
+                    nanos * 100.0 / windowTickNanos
+            ));
+        }
+        PerformanceSnapshotLogger.writeLines(lines);
+
+        Sample top = samples.get(0);
+        double share = top.nanos() * 100.0 / windowTickNanos;
+        if (share >= config.lagSourceDominantSharePercent) {
+            String description = String.format(Locale.ROOT,
+                    "%s %s from %s used %.1f%% of server tick time over the last minute",
+                    top.source().kind(), top.source().label(), top.source().mod(), share);
+            DebugGuardian.LOGGER.warn("[DebugGuardian] {}", description);
+            CrashRiskMonitor.recordSymptom(
+                    "lag-source-" + top.source().label(),
+                    share >= 75.0 ? CrashRiskMonitor.Severity.HIGH : CrashRiskMonitor.Severity.MEDIUM,
+                    description
+            );
+        }
+    }
+
+    private record Sample(Source source, long nanos, long calls) {
+    }
+
+    /**
+     * One tracked entity or block entity type.
+     */
+    private record Source(String kind, String label, String mod) {
+    }
+}
@@ -4,6 +4,7 @@ import com.thunder.debugguardian.DebugGuardian;
 import com.thunder.debugguardian.config.DebugConfig;
 import com.thunder.debugguardian.debug.errors.ErrorTracker;
 import com.thunder.debugguardian.debug.monitor.client.LogNotificationSender;
+import com.thunder.debugguardian.util.AsyncLineWriter;
 import net.neoforged.api.distmarker.Dist;
 import net.neoforged.fml.loading.FMLPaths;
 import net.neoforged.fml.loading.FMLEnvironment;
@@ -25,41 +26,58 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class LiveLogMonitor {
     private static final Path RUNTIME_LOG =
             FMLPaths.GAMEDIR.get().resolve("logs/runtime_issues.log");
+    private static final int WRITE_QUEUE_CAPACITY = 4096;
+    private static final long WRITE_FLUSH_INTERVAL_MS = 1000L;
+    private static final Path SIGNATURE_PACK_DIR =
+            FMLPaths.CONFIGDIR.get().resolve("debugguardian").resolve("log-signatures");
     private static final Set<String> seenErrors = ConcurrentHashMap.newKeySet();
-    private static final Map<String, String> errorClassifications = new LinkedHashMap<>();
+    private static final List<LogSignatureTable.Signature> BUILT_IN_SIGNATURES = List.of(
+            new LogSignatureTable.Signature("Mixin apply failed",
+                    "A mod failed to apply a mixin; features may break.",
+                    CrashRiskMonitor.Severity.HIGH),
+            new LogSignatureTable.Signature("ClassNotFoundException",
+                    "Missing class; a dependency may be absent or outdated.",
+                    CrashRiskMonitor.Severity.HIGH),
+            new LogSignatureTable.Signature("NoClassDefFoundError",
+                    "Failed to load a class; check for mod mismatches.",
+                    CrashRiskMonitor.Severity.HIGH),
+            new LogSignatureTable.Signature("OutOfMemoryError",
+                    "Ran out of memory; consider allocating more RAM.",
+                    CrashRiskMonitor.Severity.CRITICAL),
+            new LogSignatureTable.Signature("NullPointerException",
+                    "Unexpected null value; mod instability possible.",
+                    CrashRiskMonitor.Severity.MEDIUM),
+            new LogSignatureTable.Signature("Exception in server tick loop",
+                    "Fatal error during world tick; risk of corruption.",
+                    CrashRiskMonitor.Severity.CRITICAL),
+            new LogSignatureTable.Signature("Missing registry",
+                    "A registry entry could not be found; check mod versions.",
+                    CrashRiskMonitor.Severity.CRITICAL),
+            new LogSignatureTable.Signature("Duplicate mod",
+                    "Duplicate mod IDs detected; remove extras.",
+                    CrashRiskMonitor.Severity.MEDIUM),
+            new LogSignatureTable.Signature("Invalid config",
+                    "A configuration file failed to load; verify its contents.",
+                    CrashRiskMonitor.Severity.MEDIUM),
+            new LogSignatureTable.Signature("Failed to handle handshake",
+                    "Network handshake failed; a mod may be incompatible.",
+                    CrashRiskMonitor.Severity.MEDIUM),
+            new LogSignatureTable.Signature("Resource reload failed",
+                    "A resource pack failed to reload; check data or assets.",
+                    CrashRiskMonitor.Severity.MEDIUM),
+            new LogSignatureTable.Signature("Registry remapping failed",
+                    "Registry remapping failed during world load; check mod updates.",
+                    CrashRiskMonitor.Severity.HIGH),
+            new LogSignatureTable.Signature("Error generating chunk",
+                    "A chunk failed to generate; world may be corrupted.",
+                    CrashRiskMonitor.Severity.MEDIUM),
+            new LogSignatureTable.Signature("Failed to save chunk",
+                    "Chunk data failed to save; check disk health or mods.",
+                    CrashRiskMonitor.Severity.CRITICAL)
+    );
     private static final ClientNotifier CLIENT_NOTIFIER;
     private static final AtomicBoolean started = new AtomicBoolean(false);
-
-    static {
-        errorClassifications.put("Mixin apply failed",
-                "A mod failed to apply a mixin; features may break.");
-        errorClassifications.put("ClassNotFoundException",
-                "Missing class; a dependency may be absent or outdated.");
-        errorClassifications.put("NoClassDefFoundError",
-                "Failed to load a class; check for mod mismatches.");
-        errorClassifications.put("OutOfMemoryError",
-                "Ran out of memory; consider allocating more RAM.");
-        errorClassifications.put("NullPointerException",
-                "Unexpected null value; mod instability possible.");
-        errorClassifications.put("Exception in server tick loop",
-                "Fatal error during world tick; risk of corruption.");
-        errorClassifications.put("Missing registry",
-                "A registry entry could not be found; check mod versions.");
-        errorClassifications.put("Duplicate mod",
-                "Duplicate mod IDs detected; remove extras.");
-        errorClassifications.put("Invalid config",
-                "A configuration file failed to load; verify its contents.");
-        errorClassifications.put("Failed to handle handshake",
-                "Network handshake failed; a mod may be incompatible.");
-        errorClassifications.put("Resource reload failed",
-                "A resource pack failed to reload; check data or assets.");
-        errorClassifications.put("Registry remapping failed",
-                "Registry remapping failed during world load; check mod updates.");
-        errorClassifications.put("Error generating chunk",
-                "A chunk failed to generate; world may be corrupted.");
-        errorClassifications.put("Failed to save chunk",
-                "Chunk data failed to save; check disk health or mods.");
-    }
+    private static volatile LogSignatureTable signatures = LogSignatureTable.of(BUILT_IN_SIGNATURES);
 
     static {
         if (FMLEnvironment.dist == Dist.CLIENT) {
@@ -77,6 +95,7 @@ public class LiveLogMonitor {
             return;
         }
         resetLog();
+        signatures = LogSignatureTable.load(BUILT_IN_SIGNATURES, SIGNATURE_PACK_DIR);
         LoggerContext ctx = (LoggerContext) LogManager.getContext(false);
         LoggerConfig root = ctx.getConfiguration().getRootLogger();
         LiveAppender appender = new LiveAppender("LiveLogMonitor");
@@ -110,19 +129,24 @@ public class LiveLogMonitor {
             }
 
             String msg = event.getMessage().getFormattedMessage();
-            String classification = null;
-            String matchedKey   = null;
+            LogSignatureTable table = signatures;
+            LogSignatureTable.Signature matched = null;
 
-            // find first matching classification
-            for (Map.Entry<String, String> e : errorClassifications.entrySet()) {
-                if (msg.contains(e.getKey()) && seenErrors.add(e.getKey())) {
-                    classification = e.getValue();
-                    matchedKey     = e.getKey();
-                    break;
+            // first matching signature (in priority order) not yet reported
+            BitSet hits = table.match(msg);
+            if (hits != null) {
+                for (int i = hits.nextSetBit(0); i >= 0; i = hits.nextSetBit(i + 1)) {
+                    LogSignatureTable.Signature candidate = table.get(i);
+                    if (seenErrors.add(candidate.pattern())) {
+                        matched = candidate;
+                        break;
+                    }
                 }
             }
 
-            if (classification != null) {
+            if (matched != null) {
+                String classification = matched.advice();
+                String matchedKey = matched.pattern();
                 // only detect culprit for class-loading errors
                 String culprit = "Unknown".equals(sourceMod) ? "" : sourceMod;
                 if (culprit.isEmpty()
@@ -150,7 +174,7 @@ public class LiveLogMonitor {
                 sendClientNotification(msg, adviceMsg, buildReportUrl());
                 CrashRiskMonitor.recordSymptom(
                         "log-" + matchedKey,
-                        severityForKey(matchedKey),
+                        matched.severity(),
                         classification + (culprit.isEmpty() ? "" : " (" + culprit + ")")
                 );
             }
@@ -168,29 +192,16 @@ public class LiveLogMonitor {
         }
     }
 
+    /**
+     * Hands the line to the background writer; never blocks the logging thread.
+     */
     private static void write(String line) {
-        try {
-            Files.writeString(LiveLogMonitor.RUNTIME_LOG, line + "\n",
-                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-        } catch (IOException e) {
-            System.err.println("[Debug Guardian] Failed writing runtime log: "
-                    + e.getMessage());
-        }
+        RuntimeLogWriter.INSTANCE.write(line);
     }
 
-    private static CrashRiskMonitor.Severity severityForKey(String key) {
-        if (key == null) {
-            return CrashRiskMonitor.Severity.MEDIUM;
-        }
-        return switch (key) {
-            case "OutOfMemoryError", "Exception in server tick loop", "Missing registry",
-                    "Failed to save chunk" -> CrashRiskMonitor.Severity.CRITICAL;
-            case "ClassNotFoundException", "NoClassDefFoundError", "Mixin apply failed",
-                    "Registry remapping failed" -> CrashRiskMonitor.Severity.HIGH;
-            case "Failed to handle handshake", "Resource reload failed", "Invalid config" ->
-                    CrashRiskMonitor.Severity.MEDIUM;
-            default -> CrashRiskMonitor.Severity.MEDIUM;
-        };
+    private static final class RuntimeLogWriter {
+        private static final AsyncLineWriter INSTANCE = new AsyncLineWriter(
+                "debugguardian-runtime-log", RUNTIME_LOG, WRITE_QUEUE_CAPACITY, WRITE_FLUSH_INTERVAL_MS);
     }
 
     private static void sendClientNotification(String logLine, String advice, String reportUrl) {
@@ -23,8 +23,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -43,13 +41,7 @@ public final class LoadingHangDetector {
     private static final Path DUMP_DIR = FMLPaths.GAMEDIR.get().resolve("logs").resolve("debugguardian");
     private static final ThreadMXBean BEAN = ManagementFactory.getThreadMXBean();
 
-    private static final ScheduledExecutorService EXECUTOR =
-            Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread t = new Thread(r, "debugguardian-loading-hang");
-                t.setDaemon(true);
-                return t;
-            });
-
+    private static MonitorScheduler.Registration task;
     private static volatile boolean loadComplete;
     private static volatile boolean worldJoined;
     private static volatile StackTraceElement[] lastStack;
@@ -82,13 +74,19 @@ public final class LoadingHangDetector {
         return new LoadingHangSnapshot(loadComplete, worldJoined, snapshotStack, lastProgressTime, matchCount, lastCpuTime);
     }
 
-    public static void start() {
-        EXECUTOR.scheduleAtFixedRate(LoadingHangDetector::checkHang,
+    public static synchronized void start() {
+        if (task != null && !task.isCancelled()) {
+            return;
+        }
+        task = MonitorScheduler.schedule("loading-hang", LoadingHangDetector::checkHang,
                 CHECK_INTERVAL_SECONDS, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
     }
 
-    public static void stop() {
-        EXECUTOR.shutdownNow();
+    public static synchronized void stop() {
+        if (task != null) {
+            task.cancel(true);
+            task = null;
+        }
     }
 
     @SubscribeEvent
@@ -109,16 +107,15 @@ public final class LoadingHangDetector {
         if (loadComplete || worldJoined) {
             return;
         }
-        Thread mainThread = findMainThread();
-        if (mainThread == null) {
+        ThreadInfo info = GameThreads.threadInfo(GameThreads.renderThreadId(), Integer.MAX_VALUE);
+        if (info == null) {
             return;
         }
-        ThreadInfo info = BEAN.getThreadInfo(mainThread.threadId(), Integer.MAX_VALUE);
-        StackTraceElement[] stack = info != null ? info.getStackTrace() : mainThread.getStackTrace();
+        StackTraceElement[] stack = info.getStackTrace();
         if (stack == null || stack.length == 0) {
             return;
         }
-        long cpuDeltaMs = cpuDeltaMs(mainThread);
+        long cpuDeltaMs = cpuDeltaMs(info.getThreadId());
         boolean stackSame = lastStack != null && Arrays.equals(stack, lastStack);
         boolean progress = !stackSame || cpuDeltaMs >= MIN_CPU_DELTA_MS;
         if (progress) {
@@ -138,34 +135,24 @@ public final class LoadingHangDetector {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
         DebugGuardian.LOGGER.warn(
                 "Client loading appears stuck for {} ms; state {} cpu delta {} ms; top frame {} (mod: {})",
-                elapsed, info != null ? info.getThreadState() : mainThread.getState(), cpuDeltaMs, stack[0], culprit);
+                elapsed, info.getThreadState(), cpuDeltaMs, stack[0], culprit);
         CrashRiskMonitor.recordSymptom(
                 "loading-hang",
                 CrashRiskMonitor.Severity.CRITICAL,
                 "Client loading hang detected (" + culprit + ")"
         );
-        List<ThreadReport> reports = collectThreadReports();
+        List<ThreadReport> reports = collectThreadReports(ThreadSnapshotSampler.fullDump());
         writeUnifiedReport(timestamp, info, stack, culprit, elapsed, cpuDeltaMs, reports);
 
         matchCount = 0;
         lastProgressTime = System.currentTimeMillis();
     }
 
-    private static Thread findMainThread() {
-        for (Thread t : Thread.getAllStackTraces().keySet()) {
-            String name = t.getName();
-            if ("Render thread".equals(name) || "main".equals(name)) {
-                return t;
-            }
-        }
-        return null;
-    }
-
-    private static long cpuDeltaMs(Thread thread) {
+    private static long cpuDeltaMs(long threadId) {
         if (!BEAN.isThreadCpuTimeSupported()) {
             return -1;
         }
-        long nowCpu = BEAN.getThreadCpuTime(thread.threadId());
+        long nowCpu = BEAN.getThreadCpuTime(threadId);
         if (nowCpu < 0) {
             return -1;
         }
@@ -272,10 +259,13 @@ public final class LoadingHangDetector {
                 cn.startsWith("jdk.");
     }
 
-    private static List<ThreadReport> collectThreadReports() {
+    private static List<ThreadReport> collectThreadReports(ThreadInfo[] dump) {
         List<ThreadReport> reports = new ArrayList<>();
         try {
-            for (ThreadInfo info : BEAN.dumpAllThreads(true, true)) {
+            for (ThreadInfo info : dump) {
+                if (info == null) {
+                    continue;
+                }
                 StackTraceElement[] stack = info.getStackTrace();
                 if (stack == null || stack.length == 0) {
                     continue;
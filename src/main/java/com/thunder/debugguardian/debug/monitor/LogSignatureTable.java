@@ -0,0 +1,134 @@
+package com.thunder.debugguardian.debug.monitor;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.thunder.debugguardian.DebugGuardian;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Compiled set of log message signatures used by {@link LiveLogMonitor}.
+ * <p>
+ * Built-in signatures come first, followed by any signature packs found in the
+ * pack directory (loaded in file name order). A pack is a JSON file of the form
+ * <pre>
+ * {
+ *   "signatures": [
+ *     { "pattern": "Failed to bake model", "advice": "A model failed to load.", "severity": "MEDIUM" }
+ *   ]
+ * }
+ * </pre>
+ * A pack entry whose pattern matches an earlier signature replaces its advice and
+ * severity but keeps its original priority. All patterns are compiled into one
+ * {@link MultiPatternMatcher} so classifying a message costs a single scan.
+ */
+final class LogSignatureTable {
+    private final List<Signature> signatures;
+    private final MultiPatternMatcher matcher;
+
+    private LogSignatureTable(List<Signature> signatures) {
+        this.signatures = List.copyOf(signatures);
+        this.matcher = new MultiPatternMatcher(signatures.stream().map(Signature::pattern).toList());
+    }
+
+    static LogSignatureTable of(List<Signature> builtIns) {
+        return new LogSignatureTable(builtIns);
+    }
+
+    /**
+     * Compiles the built-in signatures together with every {@code *.json} pack
+     * in the given directory, creating the directory if it does not exist yet.
+     */
+    static LogSignatureTable load(List<Signature> builtIns, Path packDir) {
+        Map<String, Signature> merged = new LinkedHashMap<>();
+        for (Signature signature : builtIns) {
+            merged.put(signature.pattern(), signature);
+        }
+        int packs = 0;
+        try {
+            Files.createDirectories(packDir);
+            List<Path> files;
+            try (Stream<Path> list = Files.list(packDir)) {
+                files = list.filter(p -> p.getFileName().toString().endsWith(".json")).sorted().toList();
+            }
+            for (Path file : files) {
+                if (readPack(file, merged)) {
+                    packs++;
+                }
+            }
+        } catch (IOException e) {
+            DebugGuardian.LOGGER.warn("Could not read log signature packs from {}: {}", packDir, e.toString());
+        }
+        LogSignatureTable table = new LogSignatureTable(new ArrayList<>(merged.values()));
+        DebugGuardian.LOGGER.debug("Compiled {} log signatures ({} from {} pack(s))",
+                table.size(), table.size() - builtIns.size(), packs);
+        return table;
+    }
+
+    private static boolean readPack(Path file, Map<String, Signature> merged) {
+        try {
+            JsonObject root = JsonParser.parseString(Files.readString(file)).getAsJsonObject();
+            if (!root.has("signatures")) {
+                return false;
+            }
+            for (JsonElement element : root.getAsJsonArray("signatures")) {
+                JsonObject obj = element.getAsJsonObject();
+                if (!obj.has("pattern")) {
+                    continue;
+                }
+                String pattern = obj.get("pattern").getAsString();
+                if (pattern.isEmpty()) {
+                    continue;
+                }
+                String advice = obj.has("advice") ? obj.get("advice").getAsString() : pattern;
+                CrashRiskMonitor.Severity severity = parseSeverity(obj.has("severity")
+                        ? obj.get("severity").getAsString() : null);
+                merged.put(pattern, new Signature(pattern, advice, severity));
+            }
+            return true;
+        } catch (Exception e) {
+            DebugGuardian.LOGGER.warn("Skipping invalid log signature pack {}: {}", file.getFileName(), e.toString());
+            return false;
+        }
+    }
+
+    private static CrashRiskMonitor.Severity parseSeverity(String value) {
+        if (value == null) {
+            return CrashRiskMonitor.Severity.MEDIUM;
+        }
+        try {
+            return CrashRiskMonitor.Severity.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return CrashRiskMonitor.Severity.MEDIUM;
+        }
+    }
+
+    int size() {
+        return signatures.size();
+    }
+
+    Signature get(int index) {
+        return signatures.get(index);
+    }
+
+    /**
+     * Returns the indices of all signatures found in the message, in priority
+     * order, or {@code null} if none match.
+     */
+    BitSet match(String message) {
+        return matcher.findAll(message);
+    }
+
+    record Signature(String pattern, String advice, CrashRiskMonitor.Severity severity) {
+    }
+}
@@ -5,9 +5,6 @@ import com.thunder.debugguardian.config.DebugConfig;
 
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -15,17 +12,15 @@ import java.util.concurrent.TimeUnit;
  * consistently high, hinting at a potential leak.
  */
 public class MemoryLeakMonitor {
-    private static final String THREAD_NAME = "debugguardian-memory-leak";
+    private static final String TASK_NAME = "memory-leak";
     private static int highUsageStreak = 0;
-    private static ScheduledExecutorService scheduler;
-    private static ScheduledFuture<?> scheduledTask;
+    private static MonitorScheduler.Registration scheduledTask;
 
     public static synchronized void start() {
         if (!DebugConfig.get().memoryLeakMonitorEnable) {
             stop();
             return;
         }
-        ensureScheduler();
         reschedule();
     }
 
@@ -34,7 +29,7 @@ public class MemoryLeakMonitor {
             stop();
             return;
         }
-        if (scheduler == null || scheduler.isShutdown()) {
+        if (scheduledTask == null) {
             return;
         }
         reschedule();
@@ -45,29 +40,16 @@ public class MemoryLeakMonitor {
             scheduledTask.cancel(true);
             scheduledTask = null;
         }
-        if (scheduler != null) {
-            scheduler.shutdownNow();
-            scheduler = null;
-        }
         highUsageStreak = 0;
     }
 
-    private static void ensureScheduler() {
-        if (scheduler == null || scheduler.isShutdown()) {
-            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread t = new Thread(r, THREAD_NAME);
-                t.setDaemon(true);
-                return t;
-            });
-        }
-    }
-
     private static void reschedule() {
         int interval = Math.max(1, DebugConfig.get().memoryLeakCheckIntervalSeconds);
         if (scheduledTask != null && !scheduledTask.isCancelled()) {
             scheduledTask.cancel(false);
         }
-        scheduledTask = scheduler.scheduleAtFixedRate(
+        scheduledTask = MonitorScheduler.schedule(
+                TASK_NAME,
                 MemoryLeakMonitor::checkMemory,
                 interval,
                 interval,
@@ -0,0 +1,268 @@
+package com.thunder.debugguardian.debug.monitor;
+
+import com.thunder.debugguardian.DebugGuardian;
+import net.neoforged.fml.ModList;
+import net.neoforged.neoforgespi.language.IModInfo;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Startup-built lookup structure mapping class names to the mod that ships them.
+ * <p>
+ * Every mod file's class entries are enumerated once. Packages owned by a single
+ * mod are stored in a package-prefix trie; packages shared between several mods
+ * fall back to an exact class-name map. A map of lower-cased mod ids mirrors the
+ * historic "mod id appears in the package name" heuristic so that attribution
+ * never needs reflection or filesystem access once the index exists.
+ */
+final class ModClassIndex {
+    private static final ModClassIndex EMPTY = new ModClassIndex();
+    private static final Object LOCK = new Object();
+    private static volatile ModClassIndex instance;
+
+    private final Map<String, String> segmentOwners = new HashMap<>();
+    private final Map<String, String> sharedPackageClasses = new HashMap<>();
+    private final PackageNode packageRoot = new PackageNode();
+
+    private ModClassIndex() {
+    }
+
+    /**
+     * Returns the index, building it on first use. When the mod list is not yet
+     * available an empty index is returned without being cached.
+     */
+    static ModClassIndex get() {
+        ModClassIndex index = instance;
+        if (index != null) {
+            return index;
+        }
+        synchronized (LOCK) {
+            if (instance == null) {
+                ModList mods = ModList.get();
+                if (mods == null) {
+                    return EMPTY;
+                }
+                instance = build(mods);
+            }
+            return instance;
+        }
+    }
+
+    static boolean isBuilt() {
+        return instance != null;
+    }
+
+    /**
+     * Returns the owning mod id for the class, or {@code null} when unknown.
+     */
+    String findOwner(String className) {
+        if (className == null || className.isEmpty()) {
+            return null;
+        }
+        String bySegment = findBySegment(className);
+        if (bySegment != null) {
+            return bySegment;
+        }
+        String exact = sharedPackageClasses.get(className);
+        if (exact != null) {
+            return exact;
+        }
+        return findByPackage(className);
+    }
+
+    /**
+     * Returns the mod whose id matches any dot-separated segment of the name,
+     * ignoring case, or {@code null} if no segment matches.
+     */
+    String findBySegment(String name) {
+        if (name == null || segmentOwners.isEmpty()) {
+            return null;
+        }
+        int start = 0;
+        int length = name.length();
+        while (start <= length) {
+            int end = name.indexOf('.', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                String owner = segmentOwners.get(name.substring(start, end).toLowerCase(Locale.ROOT));
+                if (owner != null) {
+                    return owner;
+                }
+            }
+            start = end + 1;
+        }
+        return null;
+    }
+
+    private String findByPackage(String className) {
+        int packageEnd = className.lastIndexOf('.');
+        if (packageEnd <= 0) {
+            return null;
+        }
+        PackageNode node = packageRoot;
+        String owner = null;
+        int start = 0;
+        while (start < packageEnd && node.children != null) {
+            int end = className.indexOf('.', start);
+            if (end < 0 || end > packageEnd) {
+                end = packageEnd;
+            }
+            node = node.children.get(className.substring(start, end));
+            if (node == null) {
+                break;
+            }
+            if (node.modId != null) {
+                owner = node.modId;
+            }
+            start = end + 1;
+        }
+        return owner;
+    }
+
+    private static ModClassIndex build(ModList mods) {
+        long started = System.nanoTime();
+        ModClassIndex index = new ModClassIndex();
+        Map<Path, String> fileOwners = new LinkedHashMap<>();
+        for (IModInfo mod : mods.getMods()) {
+            String modId = mod.getModId();
+            index.segmentOwners.putIfAbsent(modId.toLowerCase(Locale.ROOT), modId);
+            try {
+                fileOwners.putIfAbsent(mod.getOwningFile().getFile().getFilePath(), modId);
+            } catch (Exception ignored) {
+            }
+        }
+
+        Map<String, PackageOwnership> packages = new HashMap<>();
+        int classCount = 0;
+        for (Map.Entry<Path, String> entry : fileOwners.entrySet()) {
+            String modId = entry.getValue();
+            List<String> classes = new ArrayList<>();
+            try {
+                forEachClass(entry.getKey(), classes::add);
+            } catch (Exception e) {
+                DebugGuardian.LOGGER.debug("Could not index classes for mod {}: {}", modId, e.toString());
+                continue;
+            }
+            classCount += classes.size();
+            for (String cls : classes) {
+                int dot = cls.lastIndexOf('.');
+                if (dot <= 0) {
+                    continue;
+                }
+                packages.computeIfAbsent(cls.substring(0, dot), k -> new PackageOwnership())
+                        .add(modId, cls);
+            }
+        }
+
+        for (Map.Entry<String, PackageOwnership> entry : packages.entrySet()) {
+            PackageOwnership ownership = entry.getValue();
+            if (ownership.shared) {
+                index.sharedPackageClasses.putAll(ownership.classes);
+            } else {
+                index.packageRoot.insert(entry.getKey(), ownership.firstOwner);
+            }
+        }
+
+        DebugGuardian.LOGGER.debug("Indexed {} classes in {} packages from {} mod files in {} ms",
+                classCount, packages.size(), fileOwners.size(), (System.nanoTime() - started) / 1_000_000);
+        return index;
+    }
+
+    /**
+     * Visits the binary name of every class shipped in the given mod file or
+     * directory without reading the class contents.
+     */
+    static void forEachClass(Path modPath, Consumer<String> consumer) throws IOException {
+        if (Files.isDirectory(modPath)) {
+            walkClasses(modPath, consumer);
+            return;
+        }
+        if (modPath.getFileSystem() == FileSystems.getDefault()) {
+            try (JarFile jar = new JarFile(modPath.toFile())) {
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    String name = toClassName(entries.nextElement().getName());
+                    if (name != null) {
+                        consumer.accept(name);
+                    }
+                }
+            }
+            return;
+        }
+        try (FileSystem fs = FileSystems.newFileSystem(modPath)) {
+            for (Path root : fs.getRootDirectories()) {
+                walkClasses(root, consumer);
+            }
+        }
+    }
+
+    private static void walkClasses(Path root, Consumer<String> consumer) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                String relative = root.relativize(file).toString().replace('\\', '/');
+                String name = toClassName(relative);
+                if (name != null) {
+                    consumer.accept(name);
+                }
+            });
+        }
+    }
+
+    private static String toClassName(String entryName) {
+        if (!entryName.endsWith(".class") || entryName.startsWith("META-INF/")) {
+            return null;
+        }
+        if (entryName.endsWith("module-info.class") || entryName.endsWith("package-info.class")) {
+            return null;
+        }
+        return entryName.substring(0, entryName.length() - ".class".length()).replace('/', '.');
+    }
+
+    private static final class PackageOwnership {
+        private final Map<String, String> classes = new HashMap<>();
+        private String firstOwner;
+        private boolean shared;
+
+        private void add(String modId, String className) {
+            if (firstOwner == null) {
+                firstOwner = modId;
+            } else if (!firstOwner.equals(modId)) {
+                shared = true;
+            }
+            classes.putIfAbsent(className, modId);
+        }
+    }
+
+    private static final class PackageNode {
+        private Map<String, PackageNode> children;
+        private String modId;
+
+        private void insert(String packageName, String owner) {
+            PackageNode node = this;
+            for (String segment : packageName.split("\\.")) {
+                if (node.children == null) {
+                    node.children = new HashMap<>();
+                }
+                node = node.children.computeIfAbsent(segment, k -> new PackageNode());
+            }
+            node.modId = owner;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.thunder.debugguardian.debug.monitor;
+
+import com.thunder.debugguardian.DebugGuardian;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared scheduler for all of Debug Guardian's periodic monitors.
+ * <p>
+ * Every monitor registers its check here instead of owning an executor, so the
+ * whole mod costs one daemon platform thread ({@code debugguardian-monitor}).
+ * Tasks may add random jitter to their interval to avoid lining up with each
+ * other. Each task is timed; a run that takes longer than its interval, or
+ * starts more than an interval late, counts as an overrun. A failing run does
+ * not cancel later runs. Overruns and failures are logged at most once a minute
+ * per task.
+ */
+public final class MonitorScheduler {
+    private static final String THREAD_NAME = "debugguardian-monitor";
+    private static final long LOG_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final Object LOCK = new Object();
+    private static final List<Task> TASKS = new CopyOnWriteArrayList<>();
+    private static ScheduledThreadPoolExecutor executor;
+
+    private MonitorScheduler() {
+    }
+
+    /**
+     * Registers a periodic task without jitter.
+     */
+    public static Registration schedule(String name, Runnable action, long initialDelay, long interval, TimeUnit unit) {
+        return schedule(name, action, initialDelay, interval, 0L, unit);
+    }
+
+    /**
+     * Registers a periodic task. Each run is scheduled {@code interval} after
+     * the previous scheduled start plus a random offset in {@code [0, jitter]};
+     * runs that fall behind are skipped rather than queued back to back.
+     */
+    public static Registration schedule(String name, Runnable action, long initialDelay, long interval,
+                                        long jitter, TimeUnit unit) {
+        Task task = new Task(name, action, unit.toNanos(Math.max(1, interval)), unit.toNanos(Math.max(0, jitter)));
+        TASKS.add(task);
+        task.scheduleAt(System.nanoTime() + unit.toNanos(Math.max(0, initialDelay)));
+        return task;
+    }
+
+    /**
+     * Returns timing statistics for every registered task.
+     */
+    public static List<TaskStats> stats() {
+        List<TaskStats> stats = new ArrayList<>(TASKS.size());
+        for (Task task : TASKS) {
+            stats.add(task.stats());
+        }
+        return stats;
+    }
+
+    private static ScheduledThreadPoolExecutor executor() {
+        synchronized (LOCK) {
+            if (executor == null) {
+                executor = new ScheduledThreadPoolExecutor(1, r -> {
+                    Thread t = new Thread(r, THREAD_NAME);
+                    t.setDaemon(true);
+                    return t;
+                });
+                executor.setRemoveOnCancelPolicy(true);
+            }
+            return executor;
+        }
+    }
+
+    /**
+     * Handle for a registered task.
+     */
+    public interface Registration {
+        /**
+         * Cancels future runs. When {@code interrupt} is set, a run that is
+         * currently executing is interrupted.
+         */
+        void cancel(boolean interrupt);
+
+        boolean isCancelled();
+
+        TaskStats stats();
+    }
+
+    /**
+     * Point-in-time timing for one task. Durations are in nanoseconds.
+     */
+    public record TaskStats(String name, long intervalNanos, long runs, long failures, long overruns,
+                            long lastRunNanos, long maxRunNanos, long totalRunNanos) {
+        public double averageRunMillis() {
+            return runs == 0 ? 0.0 : totalRunNanos / (double) runs / 1_000_000.0;
+        }
+    }
+
+    private static final class Task implements Registration, Runnable {
+        private final String name;
+        private final Runnable action;
+        private final long intervalNanos;
+        private final long jitterNanos;
+
+        private volatile boolean cancelled;
+        /** Thread executing the action; set, cleared and interrupted only under the task's lock. */
+        private Thread runner;
+        private ScheduledFuture<?> future;
+        private long scheduledStart;
+
+        private long runs;
+        private long failures;
+        private long overruns;
+        private long lastRunNanos;
+        private long maxRunNanos;
+        private long totalRunNanos;
+        private long lastOverrunLog;
+        private long lastFailureLog;
+
+        private Task(String name, Runnable action, long intervalNanos, long jitterNanos) {
+            this.name = name;
+            this.action = action;
+            this.intervalNanos = intervalNanos;
+            this.jitterNanos = jitterNanos;
+        }
+
+        private synchronized void scheduleAt(long startNanos) {
+            if (cancelled) {
+                return;
+            }
+            scheduledStart = startNanos;
+            long delay = Math.max(0L, startNanos - System.nanoTime());
+            future = executor().schedule(this, delay, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            long start = System.nanoTime();
+            long lateness = start - scheduledStart;
+            Throwable failure = null;
+            synchronized (this) {
+                runner = Thread.currentThread();
+            }
+            try {
+                action.run();
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                }
+                // cancel(true) only interrupts while runner is set, so once it is cleared no further
+                // interrupt can arrive for this run; clear one that did so the next task starts clean.
+                Thread.interrupted();
+            }
+            long end = System.nanoTime();
+            long duration = end - start;
+            boolean overran = duration > intervalNanos || lateness > intervalNanos;
+
+            synchronized (this) {
+                runs++;
+                if (failure != null) {
+                    failures++;
+                    if (end - lastFailureLog >= LOG_INTERVAL_NANOS || lastFailureLog == 0L) {
+                        lastFailureLog = end;
+                        DebugGuardian.LOGGER.error("Monitor task '{}' failed ({} failures so far)", name, failures, failure);
+                    }
+                }
+                lastRunNanos = duration;
+                maxRunNanos = Math.max(maxRunNanos, duration);
+                totalRunNanos += duration;
+                if (overran) {
+                    overruns++;
+                    if (end - lastOverrunLog >= LOG_INTERVAL_NANOS || lastOverrunLog == 0L) {
+                        lastOverrunLog = end;
+                        DebugGuardian.LOGGER.warn(
+                                "Monitor task '{}' overran its {} ms interval (ran {} ms, started {} ms late; {} overruns so far)",
+                                name, intervalNanos / 1_000_000, duration / 1_000_000,
+                                Math.max(0L, lateness) / 1_000_000, overruns);
+                    }
+                }
+            }
+
+            long next = scheduledStart + intervalNanos;
+            if (next < end) {
+                // Fell behind: skip missed runs instead of firing them back to back.
+                next = end + intervalNanos;
+            }
+            if (jitterNanos > 0) {
+                next += ThreadLocalRandom.current().nextLong(jitterNanos + 1);
+            }
+            scheduleAt(next);
+        }
+
+        @Override
+        public void cancel(boolean interrupt) {
+            synchronized (this) {
+                cancelled = true;
+                if (future != null) {
+                    future.cancel(false);
+                    future = null;
+                }
+                if (interrupt && runner != null) {
+                    runner.interrupt();
+                }
+            }
+            TASKS.remove(this);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public synchronized TaskStats stats() {
+            return new TaskStats(name, intervalNanos, runs, failures, overruns,
+                    lastRunNanos, maxRunNanos, totalRunNanos);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.thunder.debugguardian.debug.monitor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aho-Corasick automaton that finds which of a fixed set of literal patterns
+ * occur in a text with a single left-to-right scan, independent of the number
+ * of patterns. Matching is case-sensitive, like {@link String#contains}.
+ * <p>
+ * The automaton is compiled into a dense transition table over the characters
+ * that actually appear in the patterns; every other character maps to a
+ * shared "other" column that always leads back to the root.
+ */
+final class MultiPatternMatcher {
+    private static final int[] NO_OUTPUT = new int[0];
+
+    private final int patternCount;
+    private final int alphabetSize;
+    private final int[] asciiClasses = new int[128];
+    private final Map<Character, Integer> otherClasses = new HashMap<>();
+    private final int[] transitions;
+    private final int[][] outputs;
+
+    MultiPatternMatcher(List<String> patterns) {
+        this.patternCount = patterns.size();
+        int nextClass = 1;
+        for (String pattern : patterns) {
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c < 128) {
+                    if (asciiClasses[c] == 0) {
+                        asciiClasses[c] = nextClass++;
+                    }
+                } else if (!otherClasses.containsKey(c)) {
+                    otherClasses.put(c, nextClass++);
+                }
+            }
+        }
+        this.alphabetSize = nextClass;
+
+        // Build the trie.
+        List<int[]> gotos = new ArrayList<>();
+        List<List<Integer>> outs = new ArrayList<>();
+        gotos.add(newRow());
+        outs.add(new ArrayList<>());
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = patterns.get(p);
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                int cls = classOf(pattern.charAt(i));
+                int next = gotos.get(state)[cls];
+                if (next < 0) {
+                    next = gotos.size();
+                    gotos.get(state)[cls] = next;
+                    gotos.add(newRow());
+                    outs.add(new ArrayList<>());
+                }
+                state = next;
+            }
+            outs.get(state).add(p);
+        }
+
+        // Breadth-first pass computing failure links and completing the DFA.
+        int states = gotos.size();
+        int[] fail = new int[states];
+        this.transitions = new int[states * alphabetSize];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int[] root = gotos.get(0);
+        for (int c = 0; c < alphabetSize; c++) {
+            int next = root[c];
+            if (next < 0) {
+                transitions[c] = 0;
+            } else {
+                transitions[c] = next;
+                fail[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outs.get(state).addAll(outs.get(fail[state]));
+            int[] row = gotos.get(state);
+            for (int c = 0; c < alphabetSize; c++) {
+                int next = row[c];
+                int viaFail = transitions[fail[state] * alphabetSize + c];
+                if (next < 0) {
+                    transitions[state * alphabetSize + c] = viaFail;
+                } else {
+                    transitions[state * alphabetSize + c] = next;
+                    fail[next] = viaFail;
+                    queue.add(next);
+                }
+            }
+        }
+
+        this.outputs = new int[states][];
+        for (int s = 0; s < states; s++) {
+            List<Integer> out = outs.get(s);
+            if (out.isEmpty()) {
+                outputs[s] = NO_OUTPUT;
+            } else {
+                outputs[s] = out.stream().mapToInt(Integer::intValue).distinct().sorted().toArray();
+            }
+        }
+    }
+
+    /**
+     * Returns the indices of every pattern found in the text, or {@code null}
+     * when none match so the common no-match path allocates nothing.
+     */
+    BitSet findAll(CharSequence text) {
+        if (text == null || patternCount == 0) {
+            return null;
+        }
+        BitSet found = null;
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            state = transitions[state * alphabetSize + classOf(text.charAt(i))];
+            int[] out = outputs[state];
+            if (out.length != 0) {
+                if (found == null) {
+                    found = new BitSet(patternCount);
+                }
+                for (int p : out) {
+                    found.set(p);
+                }
+            }
+        }
+        return found;
+    }
+
+    private int classOf(char c) {
+        if (c < 128) {
+            return asciiClasses[c];
+        }
+        Integer cls = otherClasses.get(c);
+        return cls == null ? 0 : cls;
+    }
+
+    private int[] newRow() {
+        int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
@@ -0,0 +1,116 @@
+package com.thunder.debugguardian.debug.monitor;
+
+import com.thunder.debugguardian.debug.replay.GameEvent;
+import com.thunder.debugguardian.debug.replay.PostMortemRecorder;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.common.ClientboundCustomPayloadPacket;
+import net.minecraft.network.protocol.common.ServerboundCustomPayloadPacket;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-channel traffic counters for custom payload packets.
+ * <p>
+ * {@code PacketEncoderMixin} and {@code PacketDecoderMixin} report every
+ * encoded or decoded packet with its wire size (before compression). Custom
+ * payloads, which carry all modded networking, are counted per channel and
+ * forwarded to the post-mortem journal; vanilla packets are ignored. Packets
+ * on an integrated server's in-memory connection are never encoded and so are
+ * not counted.
+ * <p>
+ * {@link PerformanceSnapshotLogger} drains the counters each window and logs
+ * the busiest channels as packets and bytes per second.
+ */
+public final class PacketTrafficMonitor {
+    private static final Map<ResourceLocation, ChannelCounters> CHANNELS = new ConcurrentHashMap<>();
+    private static long windowStartNanos = System.nanoTime();
+
+    private PacketTrafficMonitor() {
+    }
+
+    public static void recordOutbound(Packet<?> packet, int bytes) {
+        record(packet, bytes, false);
+    }
+
+    public static void recordInbound(Packet<?> packet, int bytes) {
+        record(packet, bytes, true);
+    }
+
+    private static void record(Packet<?> packet, int bytes, boolean inbound) {
+        CustomPacketPayload payload;
+        if (packet instanceof ClientboundCustomPayloadPacket custom) {
+            payload = custom.payload();
+        } else if (packet instanceof ServerboundCustomPayloadPacket custom) {
+            payload = custom.payload();
+        } else {
+            return;
+        }
+        ChannelCounters counters = CHANNELS.computeIfAbsent(payload.type().id(), ChannelCounters::new);
+        if (inbound) {
+            counters.packetsIn.increment();
+            counters.bytesIn.add(bytes);
+        } else {
+            counters.packetsOut.increment();
+            counters.bytesOut.add(bytes);
+        }
+        PostMortemRecorder.recordPacket(
+                inbound ? GameEvent.EventType.PACKET_IN : GameEvent.EventType.PACKET_OUT,
+                packet.type().flow().id(),
+                counters.name,
+                bytes
+        );
+    }
+
+    /**
+     * Returns the per-second rates of every channel active since the previous
+     * call, busiest first, and starts a new window.
+     */
+    static synchronized List<ChannelRate> snapshotAndReset() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1L, now - windowStartNanos) / 1_000_000_000.0;
+        windowStartNanos = now;
+        List<ChannelRate> rates = new ArrayList<>();
+        for (ChannelCounters counters : CHANNELS.values()) {
+            long packetsIn = counters.packetsIn.sumThenReset();
+            long bytesIn = counters.bytesIn.sumThenReset();
+            long packetsOut = counters.packetsOut.sumThenReset();
+            long bytesOut = counters.bytesOut.sumThenReset();
+            if (packetsIn == 0 && packetsOut == 0) {
+                continue;
+            }
+            rates.add(new ChannelRate(counters.name, packetsIn / seconds, bytesIn / seconds,
+                    packetsOut / seconds, bytesOut / seconds));
+        }
+        rates.sort(Comparator.comparingDouble(ChannelRate::totalBytesPerSecond).reversed());
+        return rates;
+    }
+
+    /**
+     * Average traffic of one channel over a snapshot window.
+     */
+    record ChannelRate(String channel, double packetsInPerSecond, double bytesInPerSecond,
+                       double packetsOutPerSecond, double bytesOutPerSecond) {
+        double totalBytesPerSecond() {
+            return bytesInPerSecond + bytesOutPerSecond;
+        }
+    }
+
+    private static final class ChannelCounters {
+        private final String name;
+        private final LongAdder packetsIn = new LongAdder();
+        private final LongAdder bytesIn = new LongAdder();
+        private final LongAdder packetsOut = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+
+        private ChannelCounters(ResourceLocation id) {
+            this.name = id.toString();
+        }
+    }
+}
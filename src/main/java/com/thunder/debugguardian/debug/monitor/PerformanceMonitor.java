@@ -8,8 +8,6 @@ import net.neoforged.neoforge.client.event.ClientTickEvent;
 
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import static com.thunder.debugguardian.DebugGuardian.MOD_ID;
@@ -20,20 +18,15 @@ import static com.thunder.debugguardian.DebugGuardian.MOD_ID;
 @EventBusSubscriber(modid = MOD_ID)
 public class PerformanceMonitor {
     private static PerformanceMonitor instance;
-    private final ScheduledExecutorService scheduler;
+    private final MonitorScheduler.Registration memoryTask;
     private long lastTickNanos = System.nanoTime();
     // tracks consecutive slow ticks
     private int slowTickCount = 0;
     private static final int SLOW_TICK_WARN_INTERVAL = 100;
 
     private PerformanceMonitor() {
-        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "debugguardian-performance-monitor");
-            t.setDaemon(true);
-            return t;
-        });
         // Schedule memory checks
-        scheduler.scheduleAtFixedRate(this::checkMemory, 10, 10, TimeUnit.SECONDS);
+        memoryTask = MonitorScheduler.schedule("performance-memory", this::checkMemory, 10, 10, TimeUnit.SECONDS);
     }
 
     /**
@@ -47,7 +40,7 @@ public class PerformanceMonitor {
 
     public static void shutdown() {
         if (instance != null) {
-            instance.scheduler.shutdownNow();
+            instance.memoryTask.cancel(true);
             instance = null;
         }
     }
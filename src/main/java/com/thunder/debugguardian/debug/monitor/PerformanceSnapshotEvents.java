@@ -8,6 +8,11 @@ import static com.thunder.debugguardian.DebugGuardian.MOD_ID;
 
 @EventBusSubscriber(modid = MOD_ID)
 public class PerformanceSnapshotEvents {
+    @SubscribeEvent
+    public static void onServerTickStart(ServerTickEvent.Pre event) {
+        PerformanceSnapshotLogger.recordServerTickStart();
+    }
+
     @SubscribeEvent
     public static void onServerTick(ServerTickEvent.Post event) {
         PerformanceSnapshotLogger.recordServerTick();
@@ -2,6 +2,7 @@ package com.thunder.debugguardian.debug.monitor;
 
 import com.thunder.debugguardian.DebugGuardian;
 import com.thunder.debugguardian.config.DebugConfig;
+import com.thunder.debugguardian.debug.errors.ErrorTracker;
 import net.neoforged.fml.loading.FMLPaths;
 
 import java.io.IOException;
@@ -12,9 +13,8 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 public class PerformanceSnapshotLogger {
@@ -22,10 +22,13 @@ public class PerformanceSnapshotLogger {
             FMLPaths.GAMEDIR.get().resolve("logs/debugguardian_performance.log");
     private static final long LOG_INTERVAL_SECONDS = 60;
     private static final long SYSTEM_SAMPLE_SECONDS = 5;
+    private static final int TOP_CHANNELS = 10;
+    private static final int TOP_ERRORS = 5;
 
     private static PerformanceSnapshotLogger instance;
 
-    private final ScheduledExecutorService scheduler;
+    private final MonitorScheduler.Registration sampleTask;
+    private final MonitorScheduler.Registration flushTask;
     private final SampleAccumulator serverSamples = new SampleAccumulator("server");
     private final SampleAccumulator clientSamples = new SampleAccumulator("client");
     private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
@@ -33,15 +36,10 @@ public class PerformanceSnapshotLogger {
             ManagementFactory.getPlatformMXBean(com.sun.management.OperatingSystemMXBean.class);
 
     private PerformanceSnapshotLogger() {
-        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "debugguardian-performance-snapshot");
-            t.setDaemon(true);
-            return t;
-        });
         resetLog();
-        scheduler.scheduleAtFixedRate(this::captureSystemSample,
+        sampleTask = MonitorScheduler.schedule("performance-sample", this::captureSystemSample,
                 SYSTEM_SAMPLE_SECONDS, SYSTEM_SAMPLE_SECONDS, TimeUnit.SECONDS);
-        scheduler.scheduleAtFixedRate(this::flushSnapshots,
+        flushTask = MonitorScheduler.schedule("performance-snapshot", this::flushSnapshots,
                 LOG_INTERVAL_SECONDS, LOG_INTERVAL_SECONDS, TimeUnit.SECONDS);
     }
 
@@ -53,17 +51,30 @@ public class PerformanceSnapshotLogger {
 
     public static void stop() {
         if (instance != null) {
-            instance.scheduler.shutdownNow();
+            instance.sampleTask.cancel(true);
+            instance.flushTask.cancel(true);
             instance = null;
         }
     }
 
+    public static void recordServerTickStart() {
+        if (instance != null) {
+            instance.serverSamples.recordTickStart();
+        }
+    }
+
     public static void recordServerTick() {
         if (instance != null) {
             instance.serverSamples.recordTick();
         }
     }
 
+    public static void recordClientTickStart() {
+        if (instance != null) {
+            instance.clientSamples.recordTickStart();
+        }
+    }
+
     public static void recordClientTick(int fps, double gpuUsage) {
         if (instance != null) {
             instance.clientSamples.recordTick();
@@ -101,13 +112,28 @@ public class PerformanceSnapshotLogger {
         if (clientSnapshot != null) {
             writeSnapshot(clientSnapshot);
         }
+        writePhaseSnapshot(TickPhaseTimer.snapshotAndReset());
+        writeChannelSnapshot(PacketTrafficMonitor.snapshotAndReset());
+        writeErrorSnapshot(ErrorTracker.topErrors(TOP_ERRORS));
+        AttributionCache.Stats cacheStats = ClassLoadingIssueDetector.classCacheStats();
+        DebugGuardian.LOGGER.debug("Attribution cache: {} entries, {} hits, {} misses ({}% hit rate), {} evictions",
+                cacheStats.size(), cacheStats.hits(), cacheStats.misses(), Math.round(cacheStats.hitRate() * 100.0),
+                cacheStats.evictions());
+        ThreadSnapshotSampler.Stats sampler = ThreadSnapshotSampler.stats();
+        DebugGuardian.LOGGER.debug("Thread sampler: {} samples, {} full dumps, {} ms capturing",
+                sampler.samples(), sampler.fullDumps(), sampler.captureNanos() / 1_000_000);
+        for (MonitorScheduler.TaskStats task : MonitorScheduler.stats()) {
+            DebugGuardian.LOGGER.debug("Monitor task '{}': {} runs, avg {} ms, max {} ms, {} overruns, {} failures",
+                    task.name(), task.runs(), String.format(Locale.ROOT, "%.2f", task.averageRunMillis()),
+                    task.maxRunNanos() / 1_000_000, task.overruns(), task.failures());
+        }
     }
 
     private void writeSnapshot(SampleSnapshot snapshot) {
         String timestamp = DateTimeFormatter.ISO_INSTANT.format(Instant.now());
         String line = String.format(
                 Locale.ROOT,
-                "[%s] side=%s avgFps=%s avgCpu=%.2f%% avgGpu=%s avgMem=%.2f%% overloadedTicks=%d avgOverloadMs=%.2f",
+                "[%s] side=%s avgFps=%s avgCpu=%.2f%% avgGpu=%s avgMem=%.2f%% overloadedTicks=%d avgOverloadMs=%.2f%s",
                 timestamp,
                 snapshot.side(),
                 snapshot.avgFpsText(),
@@ -115,11 +141,63 @@ public class PerformanceSnapshotLogger {
                 snapshot.avgGpuText(),
                 snapshot.avgMem() * 100.0,
                 snapshot.overloadedTicks(),
-                snapshot.avgOverloadMs()
+                snapshot.avgOverloadMs(),
+                snapshot.tickTimesText()
         );
         write(line);
     }
 
+    private void writePhaseSnapshot(List<TickPhaseTimer.PhaseSnapshot> phases) {
+        if (phases.isEmpty()) {
+            return;
+        }
+        String timestamp = DateTimeFormatter.ISO_INSTANT.format(Instant.now());
+        long tickNanos = Math.max(1L, phases.get(0).totalNanos());
+        for (TickPhaseTimer.PhaseSnapshot phase : phases) {
+            write(String.format(
+                    Locale.ROOT,
+                    "[%s] side=server phase=%s runs=%d avgMs=%.2f maxMs=%.2f tickShare=%.1f%%",
+                    timestamp,
+                    phase.name(),
+                    phase.ticks(),
+                    phase.averageMillis(),
+                    phase.maxMillis(),
+                    phase.totalNanos() * 100.0 / tickNanos
+            ));
+        }
+    }
+
+    private void writeChannelSnapshot(List<PacketTrafficMonitor.ChannelRate> channels) {
+        String timestamp = DateTimeFormatter.ISO_INSTANT.format(Instant.now());
+        for (int i = 0; i < channels.size() && i < TOP_CHANNELS; i++) {
+            PacketTrafficMonitor.ChannelRate channel = channels.get(i);
+            write(String.format(
+                    Locale.ROOT,
+                    "[%s] channel=%s inPps=%.1f inBps=%.0f outPps=%.1f outBps=%.0f",
+                    timestamp,
+                    channel.channel(),
+                    channel.packetsInPerSecond(),
+                    channel.bytesInPerSecond(),
+                    channel.packetsOutPerSecond(),
+                    channel.bytesOutPerSecond()
+            ));
+        }
+    }
+
+    private void writeErrorSnapshot(List<ErrorTracker.ErrorRate> errors) {
+        String timestamp = DateTimeFormatter.ISO_INSTANT.format(Instant.now());
+        for (ErrorTracker.ErrorRate error : errors) {
+            write(String.format(
+                    Locale.ROOT,
+                    "[%s] error=%s perMin=%.0f total=%d",
+                    timestamp,
+                    error.fingerprint(),
+                    error.perMinute(),
+                    error.total()
+            ));
+        }
+    }
+
     private static void resetLog() {
         try {
             Files.createDirectories(PERFORMANCE_LOG.getParent());
@@ -130,6 +208,16 @@ public class PerformanceSnapshotLogger {
         }
     }
 
+    /**
+     * Appends lines produced by other monitors, such as {@link LagSourceTracker},
+     * to the performance log.
+     */
+    static void writeLines(List<String> lines) {
+        for (String line : lines) {
+            write(line);
+        }
+    }
+
     private static void write(String line) {
         try {
             Files.writeString(PERFORMANCE_LOG, line + "\n",
@@ -141,7 +229,8 @@ public class PerformanceSnapshotLogger {
 
     private static class SampleAccumulator {
         private final String side;
-        private long lastTickNanos = System.nanoTime();
+        private final TickHistogram tickTimes = new TickHistogram();
+        private long tickStartNanos;
         private long tickSamples;
         private long fpsSamples;
         private long fpsTotal;
@@ -152,21 +241,34 @@ public class PerformanceSnapshotLogger {
         private long gpuSamples;
         private double gpuTotal;
         private long overloadTicks;
-        private long overloadTotalMs;
+        private long overloadTotalNanos;
 
         private SampleAccumulator(String side) {
             this.side = side;
         }
 
+        private void recordTickStart() {
+            tickStartNanos = System.nanoTime();
+        }
+
+        /**
+         * Records the end of a tick. Its duration runs from the matching
+         * {@link #recordTickStart()}; a tick whose start was missed (the logger
+         * started mid-tick) is skipped.
+         */
         private void recordTick() {
-            long now = System.nanoTime();
-            long ms = TimeUnit.NANOSECONDS.toMillis(now - lastTickNanos);
-            lastTickNanos = now;
+            long start = tickStartNanos;
+            if (start == 0L) {
+                return;
+            }
+            tickStartNanos = 0L;
+            long duration = System.nanoTime() - start;
+            tickTimes.record(duration);
             tickSamples++;
-            long threshold = Math.max(1L, DebugConfig.get().performanceTickThresholdMs);
-            if (ms > threshold) {
+            long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, DebugConfig.get().performanceTickThresholdMs));
+            if (duration > thresholdNanos) {
                 overloadTicks++;
-                overloadTotalMs += (ms - threshold);
+                overloadTotalNanos += duration - thresholdNanos;
             }
         }
 
@@ -210,7 +312,7 @@ public class PerformanceSnapshotLogger {
             double avgMem = memSamples > 0 ? memTotal / memSamples : 0.0;
             double avgGpu = gpuSamples > 0 ? gpuTotal / gpuSamples : Double.NaN;
             long avgFps = fpsSamples > 0 ? Math.round((double) fpsTotal / fpsSamples) : -1;
-            double avgOverloadMs = overloadTicks > 0 ? (double) overloadTotalMs / overloadTicks : 0.0;
+            double avgOverloadMs = overloadTicks > 0 ? overloadTotalNanos / 1_000_000.0 / overloadTicks : 0.0;
             SampleSnapshot snapshot = new SampleSnapshot(
                     side,
                     avgFps,
@@ -218,7 +320,8 @@ public class PerformanceSnapshotLogger {
                     avgMem,
                     avgGpu,
                     overloadTicks,
-                    avgOverloadMs
+                    avgOverloadMs,
+                    tickTimes.snapshotAndReset()
             );
             tickSamples = 0;
             fpsSamples = 0;
@@ -230,7 +333,7 @@ public class PerformanceSnapshotLogger {
             gpuSamples = 0;
             gpuTotal = 0;
             overloadTicks = 0;
-            overloadTotalMs = 0;
+            overloadTotalNanos = 0;
             return snapshot;
         }
     }
@@ -242,7 +345,8 @@ public class PerformanceSnapshotLogger {
             double avgMem,
             double avgGpu,
             long overloadedTicks,
-            double avgOverloadMs
+            double avgOverloadMs,
+            TickHistogram.Snapshot tickTimes
     ) {
         private String avgFpsText() {
             return avgFps > 0 ? Long.toString(avgFps) : "N/A";
@@ -251,5 +355,18 @@ public class PerformanceSnapshotLogger {
         private String avgGpuText() {
             return Double.isNaN(avgGpu) ? "N/A" : String.format(Locale.ROOT, "%.2f%%", avgGpu * 100.0);
         }
+
+        private String tickTimesText() {
+            if (tickTimes == null) {
+                return "";
+            }
+            return String.format(Locale.ROOT, " ticks=%d p50Ms=%.2f p95Ms=%.2f p99Ms=%.2f p999Ms=%.2f maxMs=%.2f",
+                    tickTimes.count(),
+                    tickTimes.percentileMillis(50.0),
+                    tickTimes.percentileMillis(95.0),
+                    tickTimes.percentileMillis(99.0),
+                    tickTimes.percentileMillis(99.9),
+                    tickTimes.maxMillis());
+        }
     }
 }
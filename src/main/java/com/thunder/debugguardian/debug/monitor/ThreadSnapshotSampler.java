@@ -0,0 +1,124 @@
+package com.thunder.debugguardian.debug.monitor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shares all-thread stack samples between the hang and thread-usage detectors.
+ * Detectors that only need the server or render thread sample it directly
+ * through {@link GameThreads}.
+ * <p>
+ * Capturing every thread's stack pauses the whole JVM, so detectors do not take
+ * their own samples. They run aligned on {@link MonitorScheduler} and call
+ * {@link #snapshot()}, which captures lazily and hands every caller within
+ * {@link #MAX_AGE_MS} the same sample. The plain sample skips lock information.
+ * The more expensive dump with locked monitors and synchronizers is taken only
+ * when a detector asks for it, at most once per sample. {@link #fullDump()}
+ * takes it directly when the cached sample is stale, so a detector that only
+ * needs lock details does not pause the JVM twice.
+ */
+public final class ThreadSnapshotSampler {
+    /** Samples younger than this are reused; below the shortest detector interval. */
+    static final long MAX_AGE_MS = 2_000L;
+
+    private static final ThreadMXBean BEAN = ManagementFactory.getThreadMXBean();
+    private static final LongAdder SAMPLES = new LongAdder();
+    private static final LongAdder FULL_DUMPS = new LongAdder();
+    private static final LongAdder CAPTURE_NANOS = new LongAdder();
+
+    private static ThreadSnapshot latest;
+
+    private ThreadSnapshotSampler() {
+    }
+
+    /**
+     * Returns a recent snapshot of all threads, capturing a new one if the last
+     * is older than {@link #MAX_AGE_MS}.
+     */
+    public static synchronized ThreadSnapshot snapshot() {
+        long now = System.currentTimeMillis();
+        ThreadSnapshot current = latest;
+        if (current != null && now - current.capturedAt() < MAX_AGE_MS) {
+            return current;
+        }
+        long start = System.nanoTime();
+        ThreadInfo[] threads = BEAN.dumpAllThreads(false, false);
+        CAPTURE_NANOS.add(System.nanoTime() - start);
+        SAMPLES.increment();
+        latest = new ThreadSnapshot(now, threads, null);
+        return latest;
+    }
+
+    /**
+     * Returns a recent dump of all threads including locked monitors and
+     * synchronizers. A stale cached sample is replaced by the full dump alone,
+     * which also serves later {@link #snapshot()} callers.
+     */
+    public static synchronized ThreadInfo[] fullDump() {
+        long now = System.currentTimeMillis();
+        ThreadSnapshot current = latest;
+        if (current != null && now - current.capturedAt() < MAX_AGE_MS) {
+            return current.fullDump();
+        }
+        long start = System.nanoTime();
+        ThreadInfo[] threads = BEAN.dumpAllThreads(true, true);
+        CAPTURE_NANOS.add(System.nanoTime() - start);
+        FULL_DUMPS.increment();
+        latest = new ThreadSnapshot(now, threads, threads);
+        return threads;
+    }
+
+    public static Stats stats() {
+        return new Stats(SAMPLES.sum(), FULL_DUMPS.sum(), CAPTURE_NANOS.sum());
+    }
+
+    /**
+     * Sampling counters; {@code captureNanos} is the total wall time spent
+     * capturing samples and full dumps.
+     */
+    public record Stats(long samples, long fullDumps, long captureNanos) {
+    }
+
+    /**
+     * One all-thread sample.
+     */
+    public static final class ThreadSnapshot {
+        private final long capturedAt;
+        private final ThreadInfo[] threads;
+        private ThreadInfo[] fullDump;
+
+        private ThreadSnapshot(long capturedAt, ThreadInfo[] threads, ThreadInfo[] fullDump) {
+            this.capturedAt = capturedAt;
+            this.threads = threads;
+            this.fullDump = fullDump;
+        }
+
+        public long capturedAt() {
+            return capturedAt;
+        }
+
+        /**
+         * Threads in the sample, without lock details. Entries may be
+         * {@code null} for threads that exited while sampling.
+         */
+        public ThreadInfo[] threads() {
+            return threads;
+        }
+
+        /**
+         * Returns a dump including locked monitors and synchronizers, taken
+         * once on first request and shared by all later callers.
+         */
+        public synchronized ThreadInfo[] fullDump() {
+            if (fullDump == null) {
+                long start = System.nanoTime();
+                fullDump = BEAN.dumpAllThreads(true, true);
+                CAPTURE_NANOS.add(System.nanoTime() - start);
+                FULL_DUMPS.increment();
+            }
+            return fullDump;
+        }
+    }
+}
@@ -2,9 +2,9 @@ package com.thunder.debugguardian.debug.monitor;
 
 import com.thunder.debugguardian.DebugGuardian;
 
+import java.lang.management.ThreadInfo;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -12,17 +12,24 @@ import java.util.concurrent.TimeUnit;
  */
 public class ThreadUsageMonitor {
     private static final int THREAD_THRESHOLD = 50;
+    private static MonitorScheduler.Registration task;
 
-    public static void start() {
-        Executors.newSingleThreadScheduledExecutor().scheduleAtFixedRate(
-                ThreadUsageMonitor::checkThreads, 10, 10, TimeUnit.SECONDS);
+    public static synchronized void start() {
+        if (task != null && !task.isCancelled()) {
+            return;
+        }
+        // Aligned with the hang detectors so all of them share one thread sample.
+        task = MonitorScheduler.schedule("thread-usage", ThreadUsageMonitor::checkThreads,
+                10, 10, TimeUnit.SECONDS);
     }
 
     private static void checkThreads() {
         Map<String, Integer> counts = new HashMap<>();
-        Map<Thread, StackTraceElement[]> all = Thread.getAllStackTraces();
-        for (Map.Entry<Thread, StackTraceElement[]> e : all.entrySet()) {
-            String mod = ClassLoadingIssueDetector.identifyCulpritMod(e.getValue());
+        for (ThreadInfo info : ThreadSnapshotSampler.snapshot().threads()) {
+            if (info == null) {
+                continue;
+            }
+            String mod = ClassLoadingIssueDetector.identifyCulpritMod(info.getStackTrace());
             counts.merge(mod, 1, Integer::sum);
         }
         for (Map.Entry<String, Integer> e : counts.entrySet()) {
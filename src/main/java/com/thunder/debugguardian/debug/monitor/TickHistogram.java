@@ -0,0 +1,123 @@
+package com.thunder.debugguardian.debug.monitor;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, log-bucketed histogram of tick durations.
+ * <p>
+ * Durations are recorded in microseconds into HDR-style buckets: values below
+ * 64&nbsp;&micro;s get one bucket each, and every power of two above that is
+ * split into 32 linear sub-buckets, keeping the relative error of any reported
+ * percentile near 3%. Values above ~67&nbsp;s share the last bucket; the exact
+ * maximum is tracked separately. {@link #record(long)} does not allocate.
+ * <p>
+ * The histogram is double buffered so one ticking thread can keep recording
+ * while another thread takes a {@link #snapshotAndReset() snapshot}: the
+ * snapshot flips recording to the spare buffer, then reads and clears the
+ * retired one. A tick that races the flip may land in either window.
+ */
+public final class TickHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 25;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + SUB_BUCKETS;
+    private static final long MAX_TRACKED_MICROS = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private static final int COUNT = BUCKETS;
+    private static final int MAX = BUCKETS + 1;
+    private static final int SLOTS = BUCKETS + 2;
+
+    private final AtomicLongArray[] buffers = {new AtomicLongArray(SLOTS), new AtomicLongArray(SLOTS)};
+    private volatile int active;
+
+    /**
+     * Records one duration in nanoseconds.
+     */
+    public void record(long durationNanos) {
+        long micros = Math.max(0L, durationNanos / 1_000L);
+        AtomicLongArray buffer = buffers[active];
+        buffer.incrementAndGet(bucketIndex(Math.min(micros, MAX_TRACKED_MICROS)));
+        buffer.incrementAndGet(COUNT);
+        if (micros > buffer.get(MAX)) {
+            buffer.set(MAX, micros);
+        }
+    }
+
+    /**
+     * Returns the durations recorded since the previous call and starts a new
+     * window, or {@code null} if nothing was recorded.
+     */
+    public synchronized Snapshot snapshotAndReset() {
+        int retired = active;
+        active = retired ^ 1;
+        AtomicLongArray buffer = buffers[retired];
+        long count = buffer.getAndSet(COUNT, 0L);
+        long max = buffer.getAndSet(MAX, 0L);
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buffer.getAndSet(i, 0L);
+        }
+        return count == 0 ? null : new Snapshot(counts, count, max);
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS * 2) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (micros >>> shift);
+    }
+
+    /**
+     * Returns the midpoint of the values that map to {@code index}.
+     */
+    static double bucketValue(int index) {
+        if (index < SUB_BUCKETS * 2) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long sub = index - (long) shift * SUB_BUCKETS;
+        long lower = sub << shift;
+        long upper = ((sub + 1) << shift) - 1;
+        return (lower + upper) / 2.0;
+    }
+
+    /**
+     * One window of recorded durations.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long maxMicros;
+
+        private Snapshot(long[] counts, long count, long maxMicros) {
+            this.counts = counts;
+            this.count = count;
+            this.maxMicros = maxMicros;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public double maxMillis() {
+            return maxMicros / 1_000.0;
+        }
+
+        /**
+         * Returns the duration in milliseconds at or below which
+         * {@code percentile} percent of the recorded ticks fall.
+         */
+        public double percentileMillis(double percentile) {
+            long target = Math.max(1L, (long) Math.ceil(count * percentile / 100.0));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return Math.min(bucketValue(i), maxMicros) / 1_000.0;
+                }
+            }
+            return maxMillis();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.thunder.debugguardian.debug.monitor;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import net.neoforged.bus.api.EventPriority;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.LevelTickEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.thunder.debugguardian.DebugGuardian.MOD_ID;
+
+/**
+ * Breaks each server tick down into the time spent ticking every dimension and
+ * the network and chunk-save phases.
+ * <p>
+ * Dimension timing comes from {@link LevelTickEvent} Pre/Post. The network
+ * (connection listener) and chunk-save (autosave) phases have no events and are
+ * bracketed by {@code MinecraftServerMixin}. Each phase keeps a per-window
+ * total and maximum, drained by {@link PerformanceSnapshotLogger}, and for
+ * {@code /debugguardian ticks} a moving average over roughly the last five
+ * seconds and a maximum over the last five to ten, kept in two rotating
+ * buckets so the command does not depend on the snapshot logger running.
+ * Phases are recorded only on the server thread.
+ */
+@EventBusSubscriber(modid = MOD_ID)
+public final class TickPhaseTimer {
+    /** Weight of the newest tick in the moving average; ~100 ticks. */
+    private static final double RECENT_ALPHA = 0.01;
+    /** Length of one bucket of the recent maximum. */
+    private static final long RECENT_MAX_BUCKET_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private static final PhaseStats TOTAL = new PhaseStats("total", true);
+    private static final Map<ResourceKey<Level>, PhaseStats> DIMENSIONS = new ConcurrentHashMap<>();
+    private static final PhaseStats[] PHASES = new PhaseStats[Phase.values().length];
+    private static final long[] PHASE_START = new long[Phase.values().length];
+
+    private static long tickStart;
+    private static volatile long cumulativeTickNanos;
+    private static ResourceKey<Level> levelTicking;
+    private static long levelStart;
+
+    static {
+        for (Phase phase : Phase.values()) {
+            PHASES[phase.ordinal()] = new PhaseStats(phase.label, phase.everyTick);
+        }
+    }
+
+    private TickPhaseTimer() {
+    }
+
+    /**
+     * Phases of the server tick outside the per-dimension level ticks.
+     */
+    public enum Phase {
+        NETWORK("network", true),
+        /** Runs only on autosave ticks. */
+        CHUNK_SAVE("chunk-save", false);
+
+        private final String label;
+        private final boolean everyTick;
+
+        Phase(String label, boolean everyTick) {
+            this.label = label;
+            this.everyTick = everyTick;
+        }
+    }
+
+    public static void begin(Phase phase) {
+        PHASE_START[phase.ordinal()] = System.nanoTime();
+    }
+
+    public static void end(Phase phase) {
+        long start = PHASE_START[phase.ordinal()];
+        if (start != 0L) {
+            PHASE_START[phase.ordinal()] = 0L;
+            PHASES[phase.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    @SubscribeEvent(priority = EventPriority.HIGHEST)
+    public static void onServerTickStart(ServerTickEvent.Pre event) {
+        tickStart = System.nanoTime();
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onServerTickEnd(ServerTickEvent.Post event) {
+        long start = tickStart;
+        if (start != 0L) {
+            tickStart = 0L;
+            long duration = System.nanoTime() - start;
+            TOTAL.record(duration);
+            cumulativeTickNanos += duration;
+        }
+    }
+
+    @SubscribeEvent(priority = EventPriority.HIGHEST)
+    public static void onLevelTickStart(LevelTickEvent.Pre event) {
+        if (!event.getLevel().isClientSide()) {
+            levelTicking = event.getLevel().dimension();
+            levelStart = System.nanoTime();
+        }
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onLevelTickEnd(LevelTickEvent.Post event) {
+        Level level = event.getLevel();
+        if (level.isClientSide() || levelTicking != level.dimension()) {
+            return;
+        }
+        long duration = System.nanoTime() - levelStart;
+        levelTicking = null;
+        DIMENSIONS.computeIfAbsent(level.dimension(), key -> new PhaseStats(key.location().toString(), true))
+                .record(duration);
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        DIMENSIONS.clear();
+        tickStart = 0L;
+        levelTicking = null;
+        Arrays.fill(PHASE_START, 0L);
+    }
+
+    /**
+     * Returns the total time spent in server ticks since startup. Callers take
+     * differences between readings to get the tick time of their own window.
+     */
+    static long cumulativeTickNanos() {
+        return cumulativeTickNanos;
+    }
+
+    /**
+     * Returns every phase's totals since the previous call, slowest first, and
+     * starts a new window. The first entry is the whole tick.
+     */
+    static List<PhaseSnapshot> snapshotAndReset() {
+        List<PhaseSnapshot> result = new ArrayList<>();
+        PhaseSnapshot total = TOTAL.snapshotAndReset();
+        if (total == null) {
+            return result;
+        }
+        List<PhaseSnapshot> phases = new ArrayList<>();
+        for (PhaseStats stats : phaseStats()) {
+            PhaseSnapshot snapshot = stats.snapshotAndReset();
+            if (snapshot != null) {
+                phases.add(snapshot);
+            }
+        }
+        phases.sort(Comparator.comparingLong(PhaseSnapshot::totalNanos).reversed());
+        result.add(total);
+        result.addAll(phases);
+        return result;
+    }
+
+    /**
+     * Returns the moving average of every phase, slowest first. The first entry
+     * is the whole tick.
+     */
+    public static List<RecentPhase> recent() {
+        List<RecentPhase> result = new ArrayList<>();
+        result.add(TOTAL.recent());
+        List<RecentPhase> phases = new ArrayList<>();
+        for (PhaseStats stats : phaseStats()) {
+            phases.add(stats.recent());
+        }
+        phases.sort(Comparator.comparingDouble(RecentPhase::averageMillis).reversed());
+        result.addAll(phases);
+        return result;
+    }
+
+    private static List<PhaseStats> phaseStats() {
+        List<PhaseStats> stats = new ArrayList<>(DIMENSIONS.values());
+        stats.addAll(List.of(PHASES));
+        return stats;
+    }
+
+    /**
+     * Totals for one phase over a snapshot window.
+     */
+    record PhaseSnapshot(String name, long ticks, long totalNanos, long maxNanos) {
+        double averageMillis() {
+            return ticks == 0 ? 0.0 : totalNanos / (double) ticks / 1_000_000.0;
+        }
+
+        double maxMillis() {
+            return maxNanos / 1_000_000.0;
+        }
+    }
+
+    /**
+     * Moving average and recent maximum for one phase. The average is per run;
+     * for phases that do not run every tick it is not a share of the tick. The
+     * maximum is 0 if the phase has not run in the last five to ten seconds.
+     */
+    public record RecentPhase(String name, double averageMillis, double maxMillis, boolean everyTick) {
+    }
+
+    private static final class PhaseStats {
+        private final String name;
+        private final boolean everyTick;
+        private long ticks;
+        private long totalNanos;
+        private long maxNanos;
+        private double recentNanos = Double.NaN;
+        private long recentMaxNanos;
+        private long previousMaxNanos;
+        private long bucketStart = System.nanoTime();
+
+        private PhaseStats(String name, boolean everyTick) {
+            this.name = name;
+            this.everyTick = everyTick;
+        }
+
+        private synchronized void record(long nanos) {
+            ticks++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            recentNanos = Double.isNaN(recentNanos) ? nanos : recentNanos + (nanos - recentNanos) * RECENT_ALPHA;
+            rotate(System.nanoTime());
+            recentMaxNanos = Math.max(recentMaxNanos, nanos);
+        }
+
+        private void rotate(long now) {
+            long elapsed = now - bucketStart;
+            if (elapsed >= RECENT_MAX_BUCKET_NANOS) {
+                previousMaxNanos = elapsed >= 2 * RECENT_MAX_BUCKET_NANOS ? 0L : recentMaxNanos;
+                recentMaxNanos = 0L;
+                bucketStart = now;
+            }
+        }
+
+        private synchronized PhaseSnapshot snapshotAndReset() {
+            if (ticks == 0) {
+                return null;
+            }
+            PhaseSnapshot snapshot = new PhaseSnapshot(name, ticks, totalNanos, maxNanos);
+            ticks = 0;
+            totalNanos = 0;
+            maxNanos = 0;
+            return snapshot;
+        }
+
+        private synchronized RecentPhase recent() {
+            double average = Double.isNaN(recentNanos) ? 0.0 : recentNanos / 1_000_000.0;
+            rotate(System.nanoTime());
+            return new RecentPhase(name, average, Math.max(recentMaxNanos, previousMaxNanos) / 1_000_000.0, everyTick);
+        }
+    }
+}
@@ -2,7 +2,7 @@ package com.thunder.debugguardian.debug.monitor;
 
 import com.thunder.debugguardian.DebugGuardian;
 
-import java.util.concurrent.Executors;
+import java.lang.management.ThreadInfo;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -12,51 +12,48 @@ import java.util.concurrent.TimeUnit;
 public class WorldGenFreezeDetector {
     private static final long FREEZE_THRESHOLD_MS = 20_000; // 20 seconds
     private static long worldGenStart = -1;
+    private static MonitorScheduler.Registration task;
 
-    public static void start() {
-        Executors.newSingleThreadScheduledExecutor().scheduleAtFixedRate(() -> {
-            Thread serverThread = findServerThread();
-            if (serverThread == null) return;
-            StackTraceElement[] stack = serverThread.getStackTrace();
-            boolean inWorldGen = isWorldGenStack(stack);
-            long now = System.currentTimeMillis();
-            if (inWorldGen) {
-                if (worldGenStart < 0) {
-                    worldGenStart = now;
-                } else if (now - worldGenStart > FREEZE_THRESHOLD_MS) {
-                    String culprit = ClassLoadingIssueDetector.identifyCulpritMod(stack);
-                    if (!"Unknown".equals(culprit)) {
-                        DebugGuardian.LOGGER.warn(
-                                "Possible worldgen freeze caused by mod {}", culprit);
-                        CrashRiskMonitor.recordSymptom(
-                                "worldgen-freeze",
-                                CrashRiskMonitor.Severity.HIGH,
-                                "World generation hung, suspect mod " + culprit
-                        );
-                    } else {
-                        DebugGuardian.LOGGER.warn(
-                                "Possible worldgen freeze detected, culprit unknown");
-                        CrashRiskMonitor.recordSymptom(
-                                "worldgen-freeze",
-                                CrashRiskMonitor.Severity.MEDIUM,
-                                "World generation hung without identifiable culprit"
-                        );
-                    }
-                    worldGenStart = now; // reset to avoid spamming
-                }
-            } else {
-                worldGenStart = -1;
-            }
-        }, 10, 5, TimeUnit.SECONDS);
+    public static synchronized void start() {
+        if (task != null && !task.isCancelled()) {
+            return;
+        }
+        task = MonitorScheduler.schedule("worldgen-freeze", WorldGenFreezeDetector::check, 10, 5, TimeUnit.SECONDS);
     }
 
-    private static Thread findServerThread() {
-        for (Thread t : Thread.getAllStackTraces().keySet()) {
-            if ("Server thread".equals(t.getName())) {
-                return t;
+    private static void check() {
+        ThreadInfo serverThread = GameThreads.threadInfo(GameThreads.serverThreadId(), Integer.MAX_VALUE);
+        if (serverThread == null) return;
+        StackTraceElement[] stack = serverThread.getStackTrace();
+        boolean inWorldGen = isWorldGenStack(stack);
+        long now = System.currentTimeMillis();
+        if (inWorldGen) {
+            if (worldGenStart < 0) {
+                worldGenStart = now;
+            } else if (now - worldGenStart > FREEZE_THRESHOLD_MS) {
+                String culprit = ClassLoadingIssueDetector.identifyCulpritMod(stack);
+                if (!"Unknown".equals(culprit)) {
+                    DebugGuardian.LOGGER.warn(
+                            "Possible worldgen freeze caused by mod {}", culprit);
+                    CrashRiskMonitor.recordSymptom(
+                            "worldgen-freeze",
+                            CrashRiskMonitor.Severity.HIGH,
+                            "World generation hung, suspect mod " + culprit
+                    );
+                } else {
+                    DebugGuardian.LOGGER.warn(
+                            "Possible worldgen freeze detected, culprit unknown");
+                    CrashRiskMonitor.recordSymptom(
+                            "worldgen-freeze",
+                            CrashRiskMonitor.Severity.MEDIUM,
+                            "World generation hung without identifiable culprit"
+                    );
+                }
+                worldGenStart = now; // reset to avoid spamming
             }
+        } else {
+            worldGenStart = -1;
         }
-        return null;
     }
 
     private static boolean isWorldGenStack(StackTraceElement[] stack) {
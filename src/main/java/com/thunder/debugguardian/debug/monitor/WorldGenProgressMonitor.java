@@ -7,6 +7,8 @@ import net.neoforged.neoforge.event.level.ChunkEvent;
 import net.neoforged.neoforge.event.level.LevelEvent;
 import net.neoforged.neoforge.event.tick.ServerTickEvent;
 
+import java.lang.management.ThreadInfo;
+
 import static com.thunder.debugguardian.DebugGuardian.MOD_ID;
 
 /**
@@ -36,12 +38,10 @@ public class WorldGenProgressMonitor {
         if (lastChunkTime < 0 || warned) return;
         long elapsed = System.currentTimeMillis() - lastChunkTime;
         if (elapsed > WARN_MS) {
-            Thread serverThread = findServerThread();
-            String culprit = serverThread != null
-                    ? ClassLoadingIssueDetector.identifyCulpritMod(serverThread.getStackTrace())
-                    : "Unknown";
+            // This handler runs on the server thread itself, so its stack is at hand.
+            String culprit = ClassLoadingIssueDetector.identifyCulpritMod(Thread.currentThread().getStackTrace());
             if ("Unknown".equals(culprit)) {
-                culprit = findCulpritAcrossThreads();
+                culprit = findCulpritAcrossThreads(ThreadSnapshotSampler.snapshot());
             }
             if (!"Unknown".equals(culprit)) {
                 DebugGuardian.LOGGER.warn("World gen stuck at 0% for {} ms; possible culprit mod {}", elapsed, culprit);
@@ -52,19 +52,13 @@ public class WorldGenProgressMonitor {
         }
     }
 
-    private static Thread findServerThread() {
-        for (Thread t : Thread.getAllStackTraces().keySet()) {
-            if ("Server thread".equals(t.getName())) {
-                return t;
-            }
-        }
-        return null;
-    }
-
-    private static String findCulpritAcrossThreads() {
+    private static String findCulpritAcrossThreads(ThreadSnapshotSampler.ThreadSnapshot snapshot) {
         java.util.Map<String, Integer> counts = new java.util.HashMap<>();
-        for (java.util.Map.Entry<Thread, StackTraceElement[]> e : Thread.getAllStackTraces().entrySet()) {
-            String mod = ClassLoadingIssueDetector.identifyCulpritMod(e.getValue());
+        for (ThreadInfo info : snapshot.threads()) {
+            if (info == null) {
+                continue;
+            }
+            String mod = ClassLoadingIssueDetector.identifyCulpritMod(info.getStackTrace());
             if (!"Unknown".equals(mod)) {
                 counts.merge(mod, 1, Integer::sum);
             }
@@ -21,8 +21,6 @@ import java.time.format.DateTimeFormatter;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.List;
 import java.util.Map;
@@ -42,12 +40,7 @@ import static com.thunder.debugguardian.DebugGuardian.MOD_ID;
 public class WorldHangDetector {
     private static final long HANG_THRESHOLD_MS = 10_000; // 10 seconds
     private static final int REQUIRED_MATCHES = 3;
-    private static final ScheduledExecutorService EXECUTOR =
-            Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread t = new Thread(r, "debugguardian-hang-detector");
-                t.setDaemon(true);
-                return t;
-            });
+    private static MonitorScheduler.Registration task;
 
     private static final Path DUMP_DIR =
             FMLPaths.GAMEDIR.get().resolve("logs").resolve("debugguardian");
@@ -69,8 +62,11 @@ public class WorldHangDetector {
     /**
      * Starts periodic checks for an unresponsive server thread.
      */
-    public static void start() {
-        EXECUTOR.scheduleAtFixedRate(WorldHangDetector::checkHang, 10, 5, TimeUnit.SECONDS);
+    public static synchronized void start() {
+        if (task != null && !task.isCancelled()) {
+            return;
+        }
+        task = MonitorScheduler.schedule("world-hang", WorldHangDetector::checkHang, 10, 5, TimeUnit.SECONDS);
     }
 
     @SubscribeEvent
@@ -81,19 +77,24 @@ public class WorldHangDetector {
 
     @SubscribeEvent
     public static void onServerStopping(ServerStoppingEvent evt) {
-        EXECUTOR.shutdownNow();
+        synchronized (WorldHangDetector.class) {
+            if (task != null) {
+                task.cancel(true);
+                task = null;
+            }
+        }
     }
 
     private static void checkHang() {
         long now = System.currentTimeMillis();
         long elapsed = now - lastTick;
         if (elapsed > HANG_THRESHOLD_MS) {
-            Thread serverThread = findServerThread();
-            if (serverThread == null) {
+            ThreadInfo info = GameThreads.threadInfo(GameThreads.serverThreadId(), Integer.MAX_VALUE);
+            if (info == null) {
                 return;
             }
 
-            StackTraceElement[] stack = serverThread.getStackTrace();
+            StackTraceElement[] stack = info.getStackTrace();
             if (lastStackTrace != null && Arrays.equals(stack, lastStackTrace)) {
                 matchCount++;
             } else {
@@ -103,18 +104,18 @@ public class WorldHangDetector {
 
             if (matchCount >= REQUIRED_MATCHES) {
 
-                long nowCpu = BEAN.isThreadCpuTimeSupported() ? BEAN.getThreadCpuTime(serverThread.threadId()) : -1;
+                long nowCpu = BEAN.isThreadCpuTimeSupported() ? BEAN.getThreadCpuTime(info.getThreadId()) : -1;
                 long cpuDeltaMs = lastCpuTime > 0 && nowCpu >= 0 ? (nowCpu - lastCpuTime) / 1_000_000 : -1;
-                ThreadInfo info = BEAN.getThreadInfo(serverThread.threadId(), Integer.MAX_VALUE);
-                String lock = info != null ? String.valueOf(info.getLockName()) : "unknown";
-                String owner = info != null ? String.valueOf(info.getLockOwnerName()) : "unknown";
-                long ownerId = info != null ? info.getLockOwnerId() : -1;
+                String lock = String.valueOf(info.getLockName());
+                String owner = String.valueOf(info.getLockOwnerName());
+                long ownerId = info.getLockOwnerId();
+                ThreadInfo ownerInfo = ownerId != -1 ? GameThreads.threadInfo(ownerId, Integer.MAX_VALUE) : null;
                 String culprit = ClassLoadingIssueDetector.identifyCulpritMod(stack);
                 StackTraceElement top = stack.length > 0 ? stack[0] : null;
                 StackTraceElement culpritFrame = ClassLoadingIssueDetector.findCulpritFrame(stack);
                 DebugGuardian.LOGGER.warn(
                         "Server thread {} unresponsive for {} ms (cpu delta {} ms); waiting on {} owned by {}; blocked at {} via {} (mod: {})",
-                        serverThread.getState(), elapsed, cpuDeltaMs, lock, owner, top, culpritFrame, culprit);
+                        info.getThreadState(), elapsed, cpuDeltaMs, lock, owner, top, culpritFrame, culprit);
                 CrashRiskMonitor.recordSymptom(
                         "world-hang",
                         CrashRiskMonitor.Severity.CRITICAL,
@@ -122,7 +123,6 @@ public class WorldHangDetector {
                 );
 
                 if (ownerId != -1) {
-                    ThreadInfo ownerInfo = BEAN.getThreadInfo(ownerId, Integer.MAX_VALUE);
                     StackTraceElement[] ownerStack = ownerInfo != null ? ownerInfo.getStackTrace() : null;
                     if (ownerStack != null && ownerStack.length > 0) {
                         DebugGuardian.LOGGER.warn("Lock owner {} at {}", owner, ownerStack[0]);
@@ -139,7 +139,7 @@ public class WorldHangDetector {
                         DebugGuardian.LOGGER.debug("    at {}", element);
                     }
                 }
-                List<ThreadReport> reports = collectThreadReports();
+                List<ThreadReport> reports = collectThreadReports(ThreadSnapshotSampler.fullDump());
                 String analysis = reports.isEmpty()
                         ? ""
                         : new com.thunder.debugguardian.debug.external.AiLogAnalyzer().analyze(reports);
@@ -151,6 +151,7 @@ public class WorldHangDetector {
                         lock,
                         owner,
                         ownerId,
+                        ownerInfo,
                         culprit,
                         top,
                         culpritFrame,
@@ -169,15 +170,6 @@ public class WorldHangDetector {
         }
     }
 
-    private static Thread findServerThread() {
-        for (Thread t : Thread.getAllStackTraces().keySet()) {
-            if ("Server thread".equals(t.getName())) {
-                return t;
-            }
-        }
-        return null;
-    }
-
     private static boolean isFrameworkClass(StackTraceElement e) {
         String cn = e.getClassName();
         return cn.startsWith("java.") || cn.startsWith("javax.") ||
@@ -185,10 +177,13 @@ public class WorldHangDetector {
                 cn.startsWith("jdk.");
     }
 
-    private static List<ThreadReport> collectThreadReports() {
+    private static List<ThreadReport> collectThreadReports(ThreadInfo[] dump) {
         List<ThreadReport> reports = new ArrayList<>();
         try {
-            for (ThreadInfo info : BEAN.dumpAllThreads(true, true)) {
+            for (ThreadInfo info : dump) {
+                if (info == null) {
+                    continue;
+                }
                 StackTraceElement[] stack = info.getStackTrace();
                 if (stack == null || stack.length == 0) {
                     continue;
@@ -223,6 +218,7 @@ public class WorldHangDetector {
                                            String lock,
                                            String owner,
                                            long ownerId,
+                                           ThreadInfo ownerInfo,
                                            String culprit,
                                            StackTraceElement top,
                                            StackTraceElement culpritFrame,
@@ -263,7 +259,6 @@ public class WorldHangDetector {
                 writer.newLine();
 
                 if (ownerId != -1) {
-                    ThreadInfo ownerInfo = BEAN.getThreadInfo(ownerId, Integer.MAX_VALUE);
                     StackTraceElement[] ownerStack = ownerInfo != null ? ownerInfo.getStackTrace() : null;
                     writer.write("==== LOCK OWNER ====");
                     writer.newLine();
@@ -2,7 +2,9 @@ package com.thunder.debugguardian.debug.monitor;
 
 import com.thunder.debugguardian.DebugGuardian;
 import com.thunder.debugguardian.config.DebugConfig;
-import net.minecraft.world.level.storage.LevelResource;
+import com.thunder.debugguardian.debug.world.WorldInspectionResult;
+import com.thunder.debugguardian.debug.world.WorldScanService;
+import net.minecraft.server.MinecraftServer;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.EventBusSubscriber;
 import net.neoforged.fml.loading.FMLPaths;
@@ -10,123 +12,109 @@ import net.neoforged.neoforge.event.server.ServerStartingEvent;
 import net.neoforged.neoforge.event.server.ServerStoppingEvent;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.RejectedExecutionException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 import static com.thunder.debugguardian.DebugGuardian.MOD_ID;
 
 /**
  * Automatically scans the active world when the dedicated/server instance is
- * starting. Results are logged to disk and surfaced through the crash risk
- * monitor so administrators are alerted to corruption early.
+ * starting, and optionally sweeps it again at a fixed interval while it runs.
+ * Scans run in-process through {@link WorldScanService}, throttled so they do
+ * not compete with the server for disk and CPU; results are logged to disk and
+ * surfaced through the crash risk monitor so administrators are alerted to
+ * corruption early. Findings for region files unchanged since the previous
+ * scan are reused from the scan cache kept beside the reports, so a sweep of a
+ * mostly idle world only re-reads region headers. A sweep cut short by a
+ * shutdown leaves a checkpoint and is resumed soon after the next start.
  */
 @EventBusSubscriber(modid = MOD_ID)
 public final class WorldIssueMonitor {
-    private static final Object EXECUTOR_LOCK = new Object();
-    private static ExecutorService executor;
     private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
-    private static final Pattern SUMMARY_PATTERN =
-            Pattern.compile("Summary:\\s*(\\d+)\\s+critical,\\s*(\\d+)\\s+warnings");
+    private static final long RESUME_DELAY_MINUTES = 1L;
+    private static MonitorScheduler.Registration sweep;
 
     private WorldIssueMonitor() {
     }
 
     @SubscribeEvent
     public static void onServerStarting(ServerStartingEvent event) {
-        if (!DebugConfig.get().worldAutoScanOnStart) {
-            return;
-        }
-        Path worldDir = event.getServer().getWorldPath(LevelResource.ROOT);
+        DebugConfig config = DebugConfig.get();
+        MinecraftServer server = event.getServer();
         Path reportDir = FMLPaths.GAMEDIR.get().resolve("debugguardian").resolve("worldchecks");
-        try {
-            getExecutor().submit(() -> runScan(worldDir, reportDir));
-        } catch (RejectedExecutionException e) {
-            DebugGuardian.LOGGER.warn("Automated world scan skipped because the executor is shutting down.", e);
+        if (config.worldAutoScanOnStart) {
+            Path reportFile = reportDir.resolve("autoscan-" + FILE_TIMESTAMP.format(LocalDateTime.now()) + ".txt");
+            handleResult(WorldScanService.submit(server, false, reportDir), reportFile, "Automated world scan");
+        }
+
+        int interval = config.worldSweepIntervalMinutes;
+        if (interval > 0) {
+            long initialDelay = WorldScanService.hasCheckpoint(server, reportDir) ? RESUME_DELAY_MINUTES : interval;
+            synchronized (WorldIssueMonitor.class) {
+                if (sweep != null) {
+                    sweep.cancel(false);
+                }
+                sweep = MonitorScheduler.schedule("world-sweep", () -> startSweep(server, reportDir),
+                        initialDelay, interval, TimeUnit.MINUTES);
+            }
         }
     }
 
     @SubscribeEvent
     public static void onServerStopping(ServerStoppingEvent event) {
-        synchronized (EXECUTOR_LOCK) {
-            if (executor != null) {
-                executor.shutdownNow();
-                executor = null;
+        synchronized (WorldIssueMonitor.class) {
+            if (sweep != null) {
+                sweep.cancel(false);
+                sweep = null;
             }
         }
+        WorldScanService.shutdown();
     }
 
-    private static ExecutorService getExecutor() {
-        synchronized (EXECUTOR_LOCK) {
-            if (executor == null || executor.isShutdown() || executor.isTerminated()) {
-                executor = Executors.newSingleThreadExecutor(r -> {
-                    Thread t = new Thread(r, "debugguardian-world-autoscan");
-                    t.setDaemon(true);
-                    return t;
-                });
-            }
-            return executor;
+    private static void startSweep(MinecraftServer server, Path reportDir) {
+        if (WorldScanService.running() != null) {
+            DebugGuardian.LOGGER.debug("Skipping world integrity sweep; another world scan is still running");
+            return;
         }
+        WorldScanService.ScanTask task = WorldScanService.submit(server, DebugConfig.get().worldSweepDeep, reportDir);
+        handleResult(task, reportDir.resolve("sweep-latest.txt"), "World integrity sweep");
     }
 
-    private static void runScan(Path worldDir, Path reportDir) {
-        String timestamp = FILE_TIMESTAMP.format(LocalDateTime.now());
-        Path reportFile = reportDir.resolve("autoscan-" + timestamp + ".txt");
+    private static void handleResult(WorldScanService.ScanTask task, Path reportFile, String description) {
+        task.result().whenComplete((result, error) -> {
+            if (error != null) {
+                onScanFailed(error, description);
+            } else {
+                onScanCompleted(result, reportFile, description);
+            }
+        });
+    }
 
-        try {
-            Files.createDirectories(reportDir);
-        } catch (IOException e) {
-            DebugGuardian.LOGGER.error("Failed to create automated world integrity report directory", e);
-            return;
+    private static void onScanFailed(Throwable error, String description) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof CancellationException) {
+            DebugGuardian.LOGGER.warn("{} was cancelled; it will resume from its checkpoint", description);
+        } else {
+            DebugGuardian.LOGGER.error("{} failed", description, cause);
         }
+    }
 
-        Process process;
+    private static void onScanCompleted(WorldInspectionResult result, Path reportFile, String description) {
         try {
-            process = new ProcessBuilder(
-                    "java",
-                    "-cp",
-                    System.getProperty("java.class.path"),
-                    "com.thunder.debugguardian.debug.external.WorldCheckHelper",
-                    worldDir.toAbsolutePath().toString(),
-                    reportFile.toAbsolutePath().toString()
-            )
-                    .inheritIO()
-                    .start();
+            result.writeReport(reportFile);
         } catch (IOException e) {
-            DebugGuardian.LOGGER.error("Failed to launch automated world scan helper", e);
-            return;
-        }
-
-        int exitCode;
-        try {
-            exitCode = process.waitFor();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            DebugGuardian.LOGGER.warn("Automated world scan was interrupted");
-            return;
+            DebugGuardian.LOGGER.error("Failed to write world integrity report {}", reportFile, e);
         }
 
-        Summary summary = readSummary(reportFile);
-        if (summary == null) {
-            DebugGuardian.LOGGER.warn(
-                    "Automated world scan completed with exit code {} but no summary could be read. Report: {}",
-                    exitCode,
-                    reportFile.toAbsolutePath()
-            );
-            return;
-        }
-
-        String summaryCounts = summary.summaryCounts();
-        if (summary.errors > 0 || summary.warnings > 0) {
-            CrashRiskMonitor.Severity severity = summary.errors == 0
+        String summaryCounts = result.summaryCounts();
+        int errors = result.errors().size();
+        int warnings = result.warnings().size();
+        if (errors > 0 || warnings > 0) {
+            CrashRiskMonitor.Severity severity = errors == 0
                     ? CrashRiskMonitor.Severity.MEDIUM
                     : CrashRiskMonitor.Severity.CRITICAL;
             CrashRiskMonitor.recordSymptom(
@@ -136,67 +124,29 @@ public final class WorldIssueMonitor {
             );
         }
 
-        if (summary.errors > 0) {
+        if (errors > 0) {
             DebugGuardian.LOGGER.error(
-                    "Automated world scan detected issues: {}. Report saved to {}",
+                    "{} detected issues: {}. Report saved to {}",
+                    description,
                     summaryCounts,
                     reportFile.toAbsolutePath()
             );
-        } else if (summary.warnings > 0) {
+        } else if (warnings > 0) {
             DebugGuardian.LOGGER.warn(
-                    "Automated world scan produced warnings: {}. Report saved to {}",
+                    "{} produced warnings: {}. Report saved to {}",
+                    description,
                     summaryCounts,
                     reportFile.toAbsolutePath()
             );
         } else {
             DebugGuardian.LOGGER.info(
-                    "Automated world scan completed cleanly. Report saved to {}",
+                    "{} completed cleanly. Report saved to {}",
+                    description,
                     reportFile.toAbsolutePath()
             );
         }
-    }
-
-    private static Summary readSummary(Path reportFile) {
-        if (Files.notExists(reportFile)) {
-            return null;
-        }
-        try {
-            List<String> lines = Files.readAllLines(reportFile, StandardCharsets.UTF_8);
-            Integer errors = null;
-            Integer warnings = null;
-            for (String line : lines) {
-                if (errors == null) {
-                    Matcher summaryMatch = SUMMARY_PATTERN.matcher(line);
-                    if (summaryMatch.find()) {
-                        errors = Integer.parseInt(summaryMatch.group(1));
-                        warnings = Integer.parseInt(summaryMatch.group(2));
-                        continue;
-                    }
-                }
-                if (errors != null && warnings != null) {
-                    break;
-                }
-            }
-            if (errors == null || warnings == null) {
-                return null;
-            }
-            return new Summary(errors, warnings);
-        } catch (IOException e) {
-            DebugGuardian.LOGGER.warn("Failed to read automated world scan report", e);
-            return null;
-        }
-    }
-
-    private static final class Summary {
-        private final int errors;
-        private final int warnings;
-        private Summary(int errors, int warnings) {
-            this.errors = errors;
-            this.warnings = warnings;
-        }
-
-        private String summaryCounts() {
-            return errors + " critical, " + warnings + " warnings";
+        if (result.stats() != null) {
+            DebugGuardian.LOGGER.info("{}: {}", description, result.stats().describe());
         }
     }
 }
@@ -13,6 +13,11 @@ import static com.thunder.debugguardian.DebugGuardian.MOD_ID;
 
 @EventBusSubscriber(modid = MOD_ID, value = Dist.CLIENT)
 public class ClientPerformanceSnapshotEvents {
+    @SubscribeEvent
+    public static void onClientTickStart(ClientTickEvent.Pre event) {
+        PerformanceSnapshotLogger.recordClientTickStart();
+    }
+
     @SubscribeEvent
     public static void onClientTick(ClientTickEvent.Post event) {
         Minecraft minecraft = Minecraft.getInstance();
@@ -0,0 +1,19 @@
+package com.thunder.debugguardian.debug.monitor.client;
+
+import com.thunder.debugguardian.debug.monitor.GameThreads;
+import net.neoforged.api.distmarker.Dist;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.client.event.ClientTickEvent;
+
+import static com.thunder.debugguardian.DebugGuardian.MOD_ID;
+
+@EventBusSubscriber(modid = MOD_ID, value = Dist.CLIENT)
+public class ClientThreadEvents {
+    @SubscribeEvent
+    public static void onClientTick(ClientTickEvent.Pre event) {
+        if (!GameThreads.isRenderThreadCaptured()) {
+            GameThreads.captureRenderThread();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.thunder.debugguardian.debug.profiler;
+
+import com.thunder.debugguardian.debug.monitor.ClassLoadingIssueDetector;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates sampled stacks into a call tree.
+ * <p>
+ * Frames are interned at method granularity: each distinct
+ * {@link StackTraceElement} is resolved once to a frame id carrying its label
+ * and owning mod, so repeated samples only cost hash lookups. Tree nodes live
+ * in parallel primitive arrays, and a node's children are found through an
+ * open-addressing table from the packed {@code (parent, frame)} pair to the
+ * child's index, so walking a sample allocates nothing. Not
+ * thread-safe; owned by the profiler's sampling thread until it is stopped.
+ */
+final class CallTree {
+    private static final int ROOT = 0;
+
+    private final Map<StackTraceElement, Integer> elementIds = new HashMap<>();
+    private final Map<String, Integer> frameIds = new HashMap<>();
+    private final List<String> frameLabels = new ArrayList<>();
+    private final List<String> frameMods = new ArrayList<>();
+
+    /** Packed {@code (parent, frame)} keys; a slot is free when its node is 0. */
+    private long[] childKeys = new long[2048];
+    private int[] childNodes = new int[2048];
+    private int[] nodeFrame = new int[1024];
+    private int[] nodeParent = new int[1024];
+    private int[] nodeSelf = new int[1024];
+    private int nodeCount = 1;
+
+    private final Map<String, int[]> modSamples = new LinkedHashMap<>();
+    private int samples;
+
+    /**
+     * Adds one stack, ordered innermost frame first as returned by the JVM.
+     */
+    void add(StackTraceElement[] stack) {
+        if (stack == null || stack.length == 0) {
+            return;
+        }
+        samples++;
+        int node = ROOT;
+        String attributed = null;
+        for (int i = stack.length - 1; i >= 0; i--) {
+            int frame = intern(stack[i]);
+            node = child(node, frame);
+        }
+        nodeSelf[node]++;
+        for (StackTraceElement element : stack) {
+            String mod = frameMods.get(intern(element));
+            if (!"Unknown".equals(mod)) {
+                attributed = mod;
+                break;
+            }
+        }
+        modSamples.computeIfAbsent(attributed != null ? attributed : "Unknown", k -> new int[1])[0]++;
+    }
+
+    int samples() {
+        return samples;
+    }
+
+    int frameCount() {
+        return frameLabels.size();
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Samples per mod, attributed to the innermost frame that belongs to a known
+     * mod, sorted by count.
+     */
+    List<Map.Entry<String, Integer>> samplesByMod() {
+        List<Map.Entry<String, Integer>> result = new ArrayList<>();
+        for (Map.Entry<String, int[]> entry : modSamples.entrySet()) {
+            result.add(Map.entry(entry.getKey(), entry.getValue()[0]));
+        }
+        result.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+        return result;
+    }
+
+    /**
+     * Writes the tree in collapsed-stack ("folded") format, one line per leaf
+     * path: {@code frame;frame;frame count}. Mod-owned frames are suffixed
+     * with {@code [modid]}.
+     */
+    void writeCollapsed(Writer out) throws IOException {
+        int[] path = new int[64];
+        StringBuilder line = new StringBuilder();
+        for (int node = 1; node < nodeCount; node++) {
+            if (nodeSelf[node] == 0) {
+                continue;
+            }
+            int depth = 0;
+            for (int n = node; n != ROOT; n = nodeParent[n]) {
+                if (depth == path.length) {
+                    path = Arrays.copyOf(path, depth * 2);
+                }
+                path[depth++] = nodeFrame[n];
+            }
+            line.setLength(0);
+            for (int i = depth - 1; i >= 0; i--) {
+                line.append(frameLabels.get(path[i]));
+                if (i > 0) {
+                    line.append(';');
+                }
+            }
+            line.append(' ').append(nodeSelf[node]).append('\n');
+            out.write(line.toString());
+        }
+    }
+
+    private int intern(StackTraceElement element) {
+        Integer id = elementIds.get(element);
+        if (id != null) {
+            return id;
+        }
+        String className = element.getClassName();
+        String key = className + '.' + element.getMethodName();
+        Integer frame = frameIds.get(key);
+        if (frame == null) {
+            frame = frameLabels.size();
+            String mod = ClassLoadingIssueDetector.identifyClassOwner(className);
+            frameIds.put(key, frame);
+            frameMods.add(mod);
+            // Collapsed format uses ';' and ' ' as separators.
+            String label = key.replace(';', ':').replace(' ', '_');
+            frameLabels.add("Unknown".equals(mod) ? label : label + " [" + mod + "]");
+        }
+        elementIds.put(element, frame);
+        return frame;
+    }
+
+    private int child(int parent, int frame) {
+        long key = ((long) parent << 32) | (frame & 0xFFFFFFFFL);
+        int mask = childKeys.length - 1;
+        int slot = slot(key, mask);
+        while (childNodes[slot] != ROOT) {
+            if (childKeys[slot] == key) {
+                return childNodes[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (nodeCount == nodeFrame.length) {
+            int size = nodeCount * 2;
+            nodeFrame = Arrays.copyOf(nodeFrame, size);
+            nodeParent = Arrays.copyOf(nodeParent, size);
+            nodeSelf = Arrays.copyOf(nodeSelf, size);
+        }
+        int node = nodeCount++;
+        nodeFrame[node] = frame;
+        nodeParent[node] = parent;
+        childKeys[slot] = key;
+        childNodes[slot] = node;
+        if (nodeCount * 2 > childKeys.length) {
+            growChildren();
+        }
+        return node;
+    }
+
+    /**
+     * Doubles the child table, keeping it at most half full.
+     */
+    private void growChildren() {
+        long[] oldKeys = childKeys;
+        int[] oldNodes = childNodes;
+        childKeys = new long[oldKeys.length * 2];
+        childNodes = new int[oldNodes.length * 2];
+        int mask = childKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldNodes[i] == ROOT) {
+                continue;
+            }
+            int slot = slot(oldKeys[i], mask);
+            while (childNodes[slot] != ROOT) {
+                slot = (slot + 1) & mask;
+            }
+            childKeys[slot] = oldKeys[i];
+            childNodes[slot] = oldNodes[i];
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
@@ -0,0 +1,229 @@
+package com.thunder.debugguardian.debug.profiler;
+
+import com.thunder.debugguardian.DebugGuardian;
+import com.thunder.debugguardian.config.DebugConfig;
+import com.thunder.debugguardian.debug.monitor.GameThreads;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.fml.loading.FMLPaths;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ThreadInfo;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.thunder.debugguardian.DebugGuardian.MOD_ID;
+
+/**
+ * Sampling profiler for the server thread.
+ * <p>
+ * While a session is running, a dedicated daemon thread samples only the
+ * server thread's stack every 10&ndash;50 ms and folds it into a
+ * {@link CallTree}. Stopping the session writes a collapsed-stack file under
+ * {@code debugguardian/profiles} that can be fed straight into flame graph
+ * tools, and returns a per-mod summary. The sampler runs on its own thread
+ * rather than the shared monitor scheduler because its period is far shorter
+ * than any monitor's; it exists only while a session is active.
+ */
+@EventBusSubscriber(modid = MOD_ID)
+public final class ServerThreadProfiler {
+    private static final Path PROFILE_DIR = FMLPaths.GAMEDIR.get().resolve("debugguardian").resolve("profiles");
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+    private static final int MAX_STACK_DEPTH = 256;
+    private static final long STOP_WAIT_MS = 2_000L;
+
+    private static Session session;
+
+    private ServerThreadProfiler() {
+    }
+
+    public static synchronized boolean isRunning() {
+        return session != null;
+    }
+
+    /**
+     * Starts a session sampling every {@code intervalMs} milliseconds, clamped
+     * to 10&ndash;50 ms. Returns {@code false} if a session is already running
+     * or no server thread is available.
+     */
+    public static synchronized boolean start(int intervalMs) {
+        if (session != null) {
+            return false;
+        }
+        long threadId = GameThreads.serverThreadId();
+        if (threadId < 0) {
+            return false;
+        }
+        int interval = Math.max(10, Math.min(50, intervalMs));
+        long maxDurationNanos = TimeUnit.SECONDS.toNanos(Math.max(1, DebugConfig.get().profilerMaxDurationSeconds));
+        session = new Session(threadId, interval, maxDurationNanos);
+        session.thread.start();
+        DebugGuardian.LOGGER.info("Server thread profiler started ({} ms interval)", interval);
+        return true;
+    }
+
+    public static boolean start() {
+        return start(DebugConfig.get().profilerSampleIntervalMs);
+    }
+
+    /**
+     * Stops the running session. The returned future completes once its
+     * sampling thread has written the output; it is {@code null} if no session
+     * was running. Callers on the server thread must not block on it.
+     */
+    public static CompletableFuture<Result> stop() {
+        Session current;
+        synchronized (ServerThreadProfiler.class) {
+            current = session;
+            session = null;
+        }
+        if (current == null) {
+            return null;
+        }
+        current.running = false;
+        LockSupport.unpark(current.thread);
+        return current.result;
+    }
+
+    /**
+     * Stops a running session when the server stops, giving its sampling thread
+     * a moment to write the output before the JVM may exit.
+     */
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        CompletableFuture<Result> pending = stop();
+        if (pending == null) {
+            return;
+        }
+        try {
+            Result result = pending.get(STOP_WAIT_MS, TimeUnit.MILLISECONDS);
+            if (result.output() != null) {
+                DebugGuardian.LOGGER.info("Server thread profile written to {}", result.output());
+            }
+        } catch (TimeoutException e) {
+            DebugGuardian.LOGGER.warn("Server thread profiler did not finish writing within {} ms", STOP_WAIT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            DebugGuardian.LOGGER.error("Server thread profiler failed", e.getCause());
+        }
+    }
+
+    /**
+     * Summary of a finished session.
+     *
+     * @param output collapsed-stack file, or {@code null} if writing failed
+     */
+    public record Result(Path output, int samples, long durationMs, int intervalMs,
+                         List<Map.Entry<String, Integer>> samplesByMod) {
+    }
+
+    private static final class Session {
+        private final long threadId;
+        private final int intervalMs;
+        private final long maxDurationNanos;
+        private final CallTree tree = new CallTree();
+        private final Thread thread;
+        /** Completed by the sampling thread once it has stopped, so the tree is never read while it grows. */
+        private final CompletableFuture<Result> result = new CompletableFuture<>();
+        private final long startedAt = System.nanoTime();
+        private volatile boolean running = true;
+        private long samplingNanos;
+
+        private Session(long threadId, int intervalMs, long maxDurationNanos) {
+            this.threadId = threadId;
+            this.intervalMs = intervalMs;
+            this.maxDurationNanos = maxDurationNanos;
+            this.thread = new Thread(this::run, "debugguardian-profiler");
+            this.thread.setDaemon(true);
+        }
+
+        private void run() {
+            try {
+                boolean expired = sample();
+                Result finished = finish();
+                result.complete(finished);
+                // An expired session is no longer waited on by stop(), so report it here.
+                if (expired && release(this) && finished.output() != null) {
+                    DebugGuardian.LOGGER.info("Server thread profile written to {}", finished.output());
+                }
+            } catch (Throwable t) {
+                release(this);
+                result.completeExceptionally(t);
+                throw t;
+            }
+        }
+
+        /**
+         * Samples until stopped. Returns {@code true} if the session ended on
+         * its own, by reaching its time limit or losing the server thread.
+         */
+        private boolean sample() {
+            long intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+            long next = System.nanoTime();
+            while (running) {
+                long start = System.nanoTime();
+                if (start - startedAt > maxDurationNanos) {
+                    DebugGuardian.LOGGER.info("Server thread profiler reached its time limit; stopping");
+                    return true;
+                }
+                ThreadInfo info = GameThreads.threadInfo(threadId, MAX_STACK_DEPTH);
+                if (info == null) {
+                    DebugGuardian.LOGGER.info("Server thread exited; stopping profiler");
+                    return true;
+                }
+                tree.add(info.getStackTrace());
+                samplingNanos += System.nanoTime() - start;
+                next += intervalNanos;
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                } else {
+                    next = System.nanoTime();
+                }
+            }
+            return false;
+        }
+
+        private Result finish() {
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            Path output = PROFILE_DIR.resolve("server-" + LocalDateTime.now().format(TIMESTAMP) + ".collapsed.txt");
+            try {
+                Files.createDirectories(PROFILE_DIR);
+                try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+                    tree.writeCollapsed(writer);
+                }
+            } catch (IOException e) {
+                DebugGuardian.LOGGER.error("Failed to write server thread profile", e);
+                output = null;
+            }
+            DebugGuardian.LOGGER.debug("Profiler session: {} samples, {} frames, {} tree nodes, {} ms spent sampling",
+                    tree.samples(), tree.frameCount(), tree.nodeCount(), samplingNanos / 1_000_000);
+            return new Result(output, tree.samples(), durationMs, intervalMs, tree.samplesByMod());
+        }
+    }
+
+    /**
+     * Unregisters a session from its own sampling thread. Returns {@code false}
+     * if it was already stopped, in which case {@link #stop()} reports it.
+     */
+    private static synchronized boolean release(Session ended) {
+        if (session != ended) {
+            return false;
+        }
+        session = null;
+        return true;
+    }
+}
@@ -0,0 +1,148 @@
+package com.thunder.debugguardian.debug.replay;
+
+import com.thunder.debugguardian.DebugGuardian;
+import com.thunder.debugguardian.config.DebugConfig;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.entity.EntityType;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which events {@link PostMortemRecorder} writes to its journal.
+ * <p>
+ * Every kind of event can be sampled to one in N. Entity spawns are further
+ * filtered per entity type by allow and deny lists, a one-in-N sample rate and
+ * a per-second rate limit. The rule for a type is resolved from the config the
+ * first time that type is seen and cached by {@link EntityType} identity, so
+ * checking a spawn from a busy farm is a map lookup and a counter increment,
+ * done before any part of the event is built.
+ */
+final class CapturePolicy {
+    private final Sampler[] events = new Sampler[GameEvent.EventType.values().length];
+    private final Set<String> allow;
+    private final Set<String> deny;
+    private final Map<String, Integer> entitySampleEvery;
+    private final int entityRateLimit;
+    private final Map<EntityType<?>, EntityRule> entityRules = new ConcurrentHashMap<>();
+
+    private CapturePolicy(Map<GameEvent.EventType, Integer> eventSampleEvery, Set<String> allow, Set<String> deny,
+                          Map<String, Integer> entitySampleEvery, int entityRateLimit) {
+        eventSampleEvery.forEach((type, every) -> events[type.ordinal()] = new Sampler(every));
+        this.allow = allow;
+        this.deny = deny;
+        this.entitySampleEvery = entitySampleEvery;
+        this.entityRateLimit = entityRateLimit;
+    }
+
+    static CapturePolicy fromConfig(DebugConfig config) {
+        Map<GameEvent.EventType, Integer> eventSampleEvery = new HashMap<>();
+        parseRates(config.postMortemEventSampleEvery).forEach((key, every) -> {
+            try {
+                eventSampleEvery.put(GameEvent.EventType.valueOf(key.toUpperCase(Locale.ROOT)), every);
+            } catch (IllegalArgumentException e) {
+                DebugGuardian.LOGGER.warn("[DebugGuardian] Unknown post-mortem event kind '{}' in eventSampleEvery", key);
+            }
+        });
+        return new CapturePolicy(
+                eventSampleEvery,
+                Set.copyOf(config.postMortemEntityAllowList),
+                Set.copyOf(config.postMortemEntityDenyList),
+                parseRates(config.postMortemEntitySampleEvery),
+                config.postMortemEntityRateLimitPerSecond
+        );
+    }
+
+    /**
+     * Parses {@code key=N} entries, skipping malformed ones and rates below 2.
+     */
+    private static Map<String, Integer> parseRates(List<String> entries) {
+        Map<String, Integer> rates = new HashMap<>();
+        for (String entry : entries) {
+            int split = entry.lastIndexOf('=');
+            try {
+                if (split <= 0) {
+                    throw new NumberFormatException();
+                }
+                int every = Integer.parseInt(entry.substring(split + 1).trim());
+                if (every > 1) {
+                    rates.put(entry.substring(0, split).trim(), every);
+                }
+            } catch (NumberFormatException e) {
+                DebugGuardian.LOGGER.warn("[DebugGuardian] Ignoring malformed post-mortem sample rate '{}'", entry);
+            }
+        }
+        return rates;
+    }
+
+    boolean shouldRecord(GameEvent.EventType type) {
+        Sampler sampler = events[type.ordinal()];
+        return sampler == null || sampler.sample();
+    }
+
+    boolean shouldRecordSpawn(EntityType<?> type) {
+        EntityRule rule = entityRules.get(type);
+        if (rule == null) {
+            rule = entityRules.computeIfAbsent(type, this::resolve);
+        }
+        return rule.admit() && shouldRecord(GameEvent.EventType.ENTITY_SPAWN);
+    }
+
+    private EntityRule resolve(EntityType<?> type) {
+        String id = String.valueOf(BuiltInRegistries.ENTITY_TYPE.getKey(type));
+        boolean denied = deny.contains(id) || (!allow.isEmpty() && !allow.contains(id));
+        return new EntityRule(denied, entitySampleEvery.getOrDefault(id, 1), entityRateLimit);
+    }
+
+    /**
+     * Passes one in every {@code every} calls.
+     */
+    private static final class Sampler {
+        private final int every;
+        private final AtomicLong seen = new AtomicLong();
+
+        private Sampler(int every) {
+            this.every = every;
+        }
+
+        private boolean sample() {
+            return seen.getAndIncrement() % every == 0;
+        }
+    }
+
+    private static final class EntityRule {
+        private final boolean denied;
+        private final Sampler sampler;
+        private final int rateLimit;
+        private final AtomicInteger inWindow = new AtomicInteger();
+        private volatile long windowSecond;
+
+        private EntityRule(boolean denied, int sampleEvery, int rateLimit) {
+            this.denied = denied;
+            this.sampler = sampleEvery > 1 ? new Sampler(sampleEvery) : null;
+            this.rateLimit = rateLimit;
+        }
+
+        private boolean admit() {
+            if (denied || (sampler != null && !sampler.sample())) {
+                return false;
+            }
+            if (rateLimit <= 0) {
+                return true;
+            }
+            long second = System.nanoTime() / 1_000_000_000L;
+            if (second != windowSecond) {
+                // Racing resets only let a few extra spawns through.
+                windowSecond = second;
+                inWindow.set(0);
+            }
+            return inWindow.incrementAndGet() <= rateLimit;
+        }
+    }
+}
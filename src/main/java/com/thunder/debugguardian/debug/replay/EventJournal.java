@@ -0,0 +1,704 @@
+package com.thunder.debugguardian.debug.replay;
+
+import com.thunder.debugguardian.debug.replay.GameEvent.CommandPayload;
+import com.thunder.debugguardian.debug.replay.GameEvent.EntitySpawnPayload;
+import com.thunder.debugguardian.debug.replay.GameEvent.GameEventPayload;
+import com.thunder.debugguardian.debug.replay.GameEvent.PacketPayload;
+import com.thunder.debugguardian.debug.replay.GameEvent.TickEventPayload;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Fixed-capacity binary journal of recent game events.
+ * <p>
+ * Every event is encoded into a 64-byte record: a sequence stamp, nanoseconds
+ * since the journal was created, a type tag and flags, interned string ids for
+ * dimensions, entity types, channels and similar, two longs and packed float
+ * coordinates. Writers claim a sequence from an atomic cursor and overwrite the
+ * oldest record once the journal is full, so recording is O(1) and allocates
+ * nothing for repeated strings. The sequence stamp is published last, so a
+ * reader can skip records that were being rewritten.
+ * <p>
+ * Only bounded vocabularies are interned. Free text with no useful repetition,
+ * command lines and entity display names, goes into a bounded text ring.
+ * Writers claim space in it from a second atomic cursor, and text lapped before
+ * its record reads back as {@code <text overwritten>}.
+ * <p>
+ * The journal lives in a single off-heap buffer laid out exactly like its file
+ * form: a 64-byte header, the record region, an append-only string region and
+ * the text ring.
+ * A journal created with {@link #map(Path, int)} is backed by a memory-mapped
+ * file, so the operating system keeps the last events on disk even if the JVM
+ * is killed without running shutdown hooks. The header carries a run state
+ * that is {@link #STATE_RUNNING} until the owner marks a clean shutdown, which
+ * tells the next start whether the journal describes a session that died, and
+ * a count of crash reports generated during the session, which may have been
+ * fatal even if the JVM then exited in an orderly way.
+ */
+public final class EventJournal {
+    static final int MAGIC = 0x4447504D; // "DGPM"
+    static final int VERSION = 3;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 64;
+    /** Longer strings (usually commands) are cut to this many characters. */
+    static final int MAX_STRING_LENGTH = 256;
+
+    public static final int STATE_RUNNING = 0;
+    public static final int STATE_CLEAN = 1;
+
+    private static final int NO_STRING = -1;
+    private static final int DROPPED_STRING = -2;
+
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_CAPACITY = 8;
+    private static final int H_RECORD_SIZE = 12;
+    private static final int H_BASE_MILLIS = 16;
+    private static final int H_BASE_NANOS = 24;
+    private static final int H_STATE = 32;
+    private static final int H_STRING_REGION = 36;
+    private static final int H_STRING_USED = 40;
+    private static final int H_STRING_COUNT = 44;
+    private static final int H_TEXT_REGION = 48;
+    private static final int H_CRASH_REPORTS = 52;
+
+    private static final int OFF_SEQUENCE = 0;
+    private static final int OFF_NANOS = 8;
+    private static final int OFF_TYPE = 16;
+    private static final int OFF_FLAGS = 17;
+    private static final int OFF_DIMENSION = 20;
+    private static final int OFF_STRING_A = 24;
+    private static final int OFF_STRING_B = 28;
+    private static final int OFF_LONG_A = 32;
+    private static final int OFF_LONG_B = 40;
+    private static final int OFF_X = 48;
+    private static final int OFF_Y = 52;
+    private static final int OFF_Z = 56;
+    private static final int OFF_INT = 60;
+
+    private static final int FLAG_CLIENT_SIDE = 1;
+    private static final int FLAG_ON_SERVER = 1 << 1;
+    private static final int FLAG_HAS_LONGS = 1 << 2;
+    private static final int FLAG_HAS_POSITION = 1 << 3;
+    /** String B is an offset into the text ring rather than a string id. */
+    private static final int FLAG_TEXT_B = 1 << 4;
+
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INTS =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final int capacity;
+    private final ByteBuffer buffer;
+    /** Direct buffers are MappedByteBuffers too, so mapping is tracked explicitly. */
+    private final MappedByteBuffer mapped;
+    private final ByteBuffer records;
+    private final StringTable strings;
+    private final TextRing texts;
+    private final long baseEpochMillis;
+    private final long baseNanos;
+    private final AtomicLong cursor = new AtomicLong();
+
+    private EventJournal(ByteBuffer buffer, MappedByteBuffer mapped, int capacity, int stringRegionSize,
+                         int textRegionSize, long baseEpochMillis, long baseNanos) {
+        this.capacity = capacity;
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.mapped = mapped;
+        this.baseEpochMillis = baseEpochMillis;
+        this.baseNanos = baseNanos;
+        int recordBytes = capacity * RECORD_SIZE;
+        this.records = this.buffer.slice(HEADER_SIZE, recordBytes).order(ByteOrder.LITTLE_ENDIAN);
+        this.strings = new StringTable(this.buffer,
+                this.buffer.slice(HEADER_SIZE + recordBytes, stringRegionSize).order(ByteOrder.LITTLE_ENDIAN));
+        this.texts = new TextRing(this.buffer.slice(HEADER_SIZE + recordBytes + stringRegionSize, textRegionSize)
+                .order(ByteOrder.LITTLE_ENDIAN));
+        this.buffer.putInt(H_MAGIC, MAGIC)
+                .putInt(H_VERSION, VERSION)
+                .putInt(H_CAPACITY, capacity)
+                .putInt(H_RECORD_SIZE, RECORD_SIZE)
+                .putLong(H_BASE_MILLIS, baseEpochMillis)
+                .putLong(H_BASE_NANOS, baseNanos)
+                .putInt(H_STATE, STATE_RUNNING)
+                .putInt(H_STRING_REGION, stringRegionSize)
+                .putInt(H_STRING_USED, 0)
+                .putInt(H_STRING_COUNT, 0)
+                .putInt(H_TEXT_REGION, textRegionSize)
+                .putInt(H_CRASH_REPORTS, 0);
+        for (int i = 0; i < capacity; i++) {
+            LONGS.setRelease(records, i * RECORD_SIZE + OFF_SEQUENCE, -1L);
+        }
+    }
+
+    /**
+     * Creates an empty in-memory journal holding {@code capacity} events
+     * ({@value #RECORD_SIZE} bytes each, off-heap).
+     */
+    public static EventJournal allocate(int capacity) {
+        int records = Math.max(1, capacity);
+        int strings = stringRegionSize(records);
+        int texts = textRegionSize(records);
+        return new EventJournal(ByteBuffer.allocateDirect(HEADER_SIZE + records * RECORD_SIZE + strings + texts),
+                null, records, strings, texts, System.currentTimeMillis(), System.nanoTime());
+    }
+
+    /**
+     * Creates an empty journal backed by a memory-mapped {@code file}, replacing
+     * any previous contents. Read an old file with {@link #read(Path, Consumer)} first if
+     * it may hold a previous session.
+     */
+    public static EventJournal map(Path file, int capacity) throws IOException {
+        int records = Math.max(1, capacity);
+        int strings = stringRegionSize(records);
+        int texts = textRegionSize(records);
+        long size = HEADER_SIZE + (long) records * RECORD_SIZE + strings + texts;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new EventJournal(mapped, mapped, records, strings, texts,
+                    System.currentTimeMillis(), System.nanoTime());
+        }
+    }
+
+    /**
+     * Room for interned strings: scaled with capacity, between 64 KiB and 4 MiB.
+     * Only bounded vocabularies are interned, so this is rarely exhausted.
+     */
+    private static int stringRegionSize(int capacity) {
+        return (int) Math.min(4L << 20, Math.max(64L << 10, capacity * 16L));
+    }
+
+    /**
+     * Room for free text: 64 bytes per record, between 64 KiB and 8 MiB. Most
+     * records carry no text, so this rarely laps text that is still needed.
+     */
+    private static int textRegionSize(int capacity) {
+        return (int) Math.min(8L << 20, Math.max(64L << 10, capacity * 64L));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean isMapped() {
+        return mapped != null;
+    }
+
+    /**
+     * Updates the run state in the header. For a mapped journal the change is
+     * forced to disk.
+     */
+    public void markState(int state) {
+        INTS.setRelease(buffer, H_STATE, state);
+        if (mapped != null) {
+            mapped.force(0, HEADER_SIZE);
+        }
+    }
+
+    public int crashReports() {
+        return (int) INTS.getAcquire(buffer, H_CRASH_REPORTS);
+    }
+
+    /**
+     * Counts a crash report generated during this session, independently of
+     * the run state. For a mapped journal the change is forced to disk.
+     */
+    public void markCrashReport() {
+        INTS.getAndAdd(buffer, H_CRASH_REPORTS, 1);
+        if (mapped != null) {
+            mapped.force(0, HEADER_SIZE);
+        }
+    }
+
+    public void tick(String side, String phase, Long gameTime, String dimension) {
+        long sequence = claim(GameEvent.EventType.TICK, gameTime != null ? FLAG_HAS_LONGS : 0, dimension);
+        int base = offset(sequence);
+        records.putInt(base + OFF_STRING_A, strings.intern(side));
+        records.putInt(base + OFF_STRING_B, strings.intern(phase));
+        records.putLong(base + OFF_LONG_A, gameTime != null ? gameTime : 0L);
+        publish(sequence);
+    }
+
+    public void entitySpawn(String entityType, String displayName, UUID uuid, double x, double y, double z,
+                            String dimension, boolean clientSide) {
+        int flags = FLAG_HAS_POSITION | FLAG_TEXT_B | (uuid != null ? FLAG_HAS_LONGS : 0)
+                | (clientSide ? FLAG_CLIENT_SIDE : 0);
+        long sequence = claim(GameEvent.EventType.ENTITY_SPAWN, flags, dimension);
+        int base = offset(sequence);
+        records.putInt(base + OFF_STRING_A, strings.intern(entityType));
+        records.putInt(base + OFF_STRING_B, texts.put(sequence, displayName));
+        records.putLong(base + OFF_LONG_A, uuid != null ? uuid.getMostSignificantBits() : 0L);
+        records.putLong(base + OFF_LONG_B, uuid != null ? uuid.getLeastSignificantBits() : 0L);
+        putPosition(base, x, y, z);
+        publish(sequence);
+    }
+
+    public void command(String sourceName, String command, double[] position, String dimension,
+                        boolean executesOnServer) {
+        boolean hasPosition = position != null && position.length >= 3;
+        int flags = FLAG_TEXT_B | (hasPosition ? FLAG_HAS_POSITION : 0) | (executesOnServer ? FLAG_ON_SERVER : 0);
+        long sequence = claim(GameEvent.EventType.COMMAND, flags, dimension);
+        int base = offset(sequence);
+        records.putInt(base + OFF_STRING_A, strings.intern(sourceName));
+        records.putInt(base + OFF_STRING_B, texts.put(sequence, command));
+        if (hasPosition) {
+            putPosition(base, position[0], position[1], position[2]);
+        }
+        publish(sequence);
+    }
+
+    public void packet(GameEvent.EventType type, String direction, String channel, int payloadSize, String dimension) {
+        long sequence = claim(type, 0, dimension);
+        int base = offset(sequence);
+        records.putInt(base + OFF_STRING_A, strings.intern(direction));
+        records.putInt(base + OFF_STRING_B, strings.intern(channel));
+        records.putInt(base + OFF_INT, payloadSize);
+        publish(sequence);
+    }
+
+    /**
+     * Encodes an already built event. The event's own timestamp is replaced
+     * by the time of recording.
+     */
+    public void record(GameEvent event) {
+        switch (event.getData()) {
+            case TickEventPayload p -> tick(p.side(), p.phase(), p.gameTime(), p.dimension());
+            case EntitySpawnPayload p -> entitySpawn(p.entityType(), p.displayName(), p.uuid(),
+                    p.x(), p.y(), p.z(), p.dimension(), p.clientSide());
+            case CommandPayload p -> command(p.sourceName(), p.command(), p.position(), p.dimension(),
+                    p.executesOnServer());
+            case PacketPayload p -> packet(event.getType(), p.direction(), p.channel(), p.payloadSize(), p.dimension());
+        }
+    }
+
+    /**
+     * Returns an in-memory journal with the given capacity holding the newest
+     * records of this one. Events recorded while copying may be lost.
+     */
+    public EventJournal resize(int newCapacity) {
+        int records = Math.max(1, newCapacity);
+        // Kept a multiple of eight so the text ring after it stays aligned for LONGS.
+        int stringRegion = (Math.max(strings.used(), stringRegionSize(records)) + 7) & ~7;
+        int textRegion = textRegionSize(records);
+        EventJournal resized = new EventJournal(
+                ByteBuffer.allocateDirect(HEADER_SIZE + records * RECORD_SIZE + stringRegion + textRegion), null,
+                records, stringRegion, textRegion, baseEpochMillis, baseNanos);
+        strings.copyTo(resized.strings);
+        long end = cursor.get();
+        long start = Math.max(0L, end - Math.min(capacity, records));
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (long sequence = start; sequence < end; sequence++) {
+            if (!copyRecord(sequence, record)) {
+                continue;
+            }
+            long target = resized.cursor.getAndIncrement();
+            int base = resized.offset(target);
+            resized.records.put(base, record, 0, RECORD_SIZE);
+            if ((record.get(OFF_FLAGS) & FLAG_TEXT_B) != 0) {
+                // Text entries are stamped with their record's sequence, which changes here.
+                String text = TextRing.read(texts.region, record.getInt(OFF_STRING_B), sequence);
+                resized.records.putInt(base + OFF_STRING_B, resized.texts.put(target, text));
+            }
+            LONGS.setRelease(resized.records, base + OFF_SEQUENCE, target);
+        }
+        return resized;
+    }
+
+    /**
+     * Writes a copy of the whole journal to {@code file}. For a mapped journal
+     * the mapping is flushed first.
+     */
+    public void write(Path file) throws IOException {
+        if (mapped != null) {
+            mapped.force();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer region = buffer.duplicate().clear();
+            while (region.hasRemaining()) {
+                channel.write(region);
+            }
+        }
+    }
+
+    /**
+     * Decodes a journal file, whether written by {@link #write(Path)} or left
+     * behind by a mapped journal, handing events to {@code consumer} oldest
+     * first. The file is read into an off-heap buffer and events are decoded
+     * one at a time, so heap use does not grow with the journal's size. It is
+     * not mapped, so the same file can be remapped for writing right after.
+     */
+    public static Summary read(Path file, Consumer<GameEvent> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a post-mortem journal: " + file);
+            }
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) size).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading
+            }
+            buffer.flip();
+            return decode(buffer, file, consumer);
+        }
+    }
+
+    /**
+     * Returns whether a journal file describes a session that was killed or
+     * generated a crash report, reading only its header.
+     */
+    public static boolean needsRecovery(Path file) throws IOException {
+        ByteBuffer header = readHeader(file);
+        return header.getInt(H_STATE) != STATE_CLEAN || header.getInt(H_CRASH_REPORTS) > 0;
+    }
+
+    private static ByteBuffer readHeader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading
+            }
+            if (header.position() < HEADER_SIZE || header.getInt(H_MAGIC) != MAGIC) {
+                throw new IOException("Not a post-mortem journal: " + file);
+            }
+            return header;
+        }
+    }
+
+    private static Summary decode(ByteBuffer buffer, Path file, Consumer<GameEvent> consumer) throws IOException {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(H_MAGIC) != MAGIC) {
+            throw new IOException("Not a post-mortem journal: " + file);
+        }
+        int version = buffer.getInt(H_VERSION);
+        if (version != VERSION) {
+            throw new IOException("Unsupported post-mortem journal version " + version);
+        }
+        int capacity = buffer.getInt(H_CAPACITY);
+        int stringRegion = buffer.getInt(H_STRING_REGION);
+        int textRegion = buffer.getInt(H_TEXT_REGION);
+        if (buffer.getInt(H_RECORD_SIZE) != RECORD_SIZE || capacity <= 0 || stringRegion < 0 || textRegion < 0
+                || HEADER_SIZE + (long) capacity * RECORD_SIZE + stringRegion + textRegion > buffer.limit()) {
+            throw new IOException("Corrupt or truncated post-mortem journal: " + file);
+        }
+        long baseEpochMillis = buffer.getLong(H_BASE_MILLIS);
+        int state = buffer.getInt(H_STATE);
+        List<String> table = StringTable.read(
+                buffer.slice(HEADER_SIZE + capacity * RECORD_SIZE, stringRegion).order(ByteOrder.LITTLE_ENDIAN),
+                buffer.getInt(H_STRING_USED));
+        ByteBuffer texts = buffer.slice(HEADER_SIZE + capacity * RECORD_SIZE + stringRegion, textRegion)
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        // Every published slot holds the newest sequence written to it, so
+        // sorting the stamps restores event order without a stored cursor.
+        ByteBuffer records = buffer.slice(HEADER_SIZE, capacity * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        long[] order = new long[capacity];
+        int published = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            long sequence = records.getLong(slot * RECORD_SIZE + OFF_SEQUENCE);
+            if (sequence >= 0 && sequence % capacity == slot) {
+                order[published++] = sequence;
+            }
+        }
+        Arrays.sort(order, 0, published);
+        int decoded = 0;
+        for (int i = 0; i < published; i++) {
+            GameEvent event = decodeRecord(records, (int) (order[i] % capacity) * RECORD_SIZE, order[i],
+                    baseEpochMillis, table, texts);
+            if (event != null) {
+                consumer.accept(event);
+                decoded++;
+            }
+        }
+        return new Summary(Instant.ofEpochMilli(baseEpochMillis), state, buffer.getInt(H_CRASH_REPORTS), capacity,
+                decoded);
+    }
+
+    private static GameEvent decodeRecord(ByteBuffer region, int base, long sequence, long baseEpochMillis,
+                                          List<String> table, ByteBuffer texts) {
+        int typeIndex = region.get(base + OFF_TYPE);
+        GameEvent.EventType[] types = GameEvent.EventType.values();
+        if (typeIndex < 0 || typeIndex >= types.length) {
+            return null;
+        }
+        GameEvent.EventType type = types[typeIndex];
+        int flags = region.get(base + OFF_FLAGS);
+        long nanos = region.getLong(base + OFF_NANOS);
+        Instant timestamp = Instant.ofEpochMilli(baseEpochMillis).plusNanos(nanos);
+        String dimension = lookup(table, region.getInt(base + OFF_DIMENSION));
+        String a = lookup(table, region.getInt(base + OFF_STRING_A));
+        String b = (flags & FLAG_TEXT_B) != 0
+                ? TextRing.read(texts, region.getInt(base + OFF_STRING_B), sequence)
+                : lookup(table, region.getInt(base + OFF_STRING_B));
+        boolean hasLongs = (flags & FLAG_HAS_LONGS) != 0;
+        boolean hasPosition = (flags & FLAG_HAS_POSITION) != 0;
+        double x = region.getFloat(base + OFF_X);
+        double y = region.getFloat(base + OFF_Y);
+        double z = region.getFloat(base + OFF_Z);
+        GameEventPayload payload = switch (type) {
+            case TICK -> new TickEventPayload(a, b, hasLongs ? region.getLong(base + OFF_LONG_A) : null, dimension);
+            case ENTITY_SPAWN -> new EntitySpawnPayload(a, b,
+                    hasLongs ? new UUID(region.getLong(base + OFF_LONG_A), region.getLong(base + OFF_LONG_B)) : null,
+                    x, y, z, dimension, (flags & FLAG_CLIENT_SIDE) != 0);
+            case COMMAND -> new CommandPayload(a, b, hasPosition ? new double[]{x, y, z} : null, dimension,
+                    (flags & FLAG_ON_SERVER) != 0);
+            case PACKET_IN, PACKET_OUT -> new PacketPayload(a, b, region.getInt(base + OFF_INT), dimension);
+        };
+        return new GameEvent(timestamp, type, payload);
+    }
+
+    private static String lookup(List<String> table, int id) {
+        if (id == NO_STRING) {
+            return null;
+        }
+        if (id < 0 || id >= table.size()) {
+            return "<string table full>";
+        }
+        return table.get(id);
+    }
+
+    private int offset(long sequence) {
+        return (int) (sequence % capacity) * RECORD_SIZE;
+    }
+
+    /**
+     * Claims the next record, marks it as being written and fills the common
+     * header. The record stays invisible to readers until {@link #publish}.
+     */
+    private long claim(GameEvent.EventType type, int flags, String dimension) {
+        long sequence = cursor.getAndIncrement();
+        int base = offset(sequence);
+        LONGS.setRelease(records, base + OFF_SEQUENCE, -1L);
+        // A release store only orders earlier accesses; keep the plain field
+        // stores below from becoming visible before the invalidation.
+        VarHandle.storeStoreFence();
+        records.putLong(base + OFF_NANOS, System.nanoTime() - baseNanos);
+        records.put(base + OFF_TYPE, (byte) type.ordinal());
+        records.put(base + OFF_FLAGS, (byte) flags);
+        records.putShort(base + OFF_FLAGS + 1, (short) 0);
+        records.putInt(base + OFF_DIMENSION, strings.intern(dimension));
+        records.putInt(base + OFF_STRING_A, NO_STRING);
+        records.putInt(base + OFF_STRING_B, NO_STRING);
+        records.putLong(base + OFF_LONG_A, 0L);
+        records.putLong(base + OFF_LONG_B, 0L);
+        records.putLong(base + OFF_X, 0L);
+        records.putInt(base + OFF_Z, 0);
+        records.putInt(base + OFF_INT, 0);
+        return sequence;
+    }
+
+    private void publish(long sequence) {
+        LONGS.setRelease(records, offset(sequence) + OFF_SEQUENCE, sequence);
+    }
+
+    private void putPosition(int base, double x, double y, double z) {
+        records.putFloat(base + OFF_X, (float) x);
+        records.putFloat(base + OFF_Y, (float) y);
+        records.putFloat(base + OFF_Z, (float) z);
+    }
+
+    private boolean copyRecord(long sequence, ByteBuffer target) {
+        int base = offset(sequence);
+        if ((long) LONGS.getAcquire(records, base + OFF_SEQUENCE) != sequence) {
+            return false;
+        }
+        target.put(0, records, base, RECORD_SIZE);
+        // Keep the plain bulk read above from moving after the re-check.
+        VarHandle.loadLoadFence();
+        return (long) LONGS.getAcquire(records, base + OFF_SEQUENCE) == sequence;
+    }
+
+    /**
+     * Header facts about a decoded journal.
+     *
+     * @param started      when the recording session began
+     * @param state        run state at the time the file was last written
+     * @param crashReports crash reports generated during the session
+     * @param events       number of retained events decoded
+     */
+    public record Summary(Instant started, int state, int crashReports, int capacity, int events) {
+        public boolean cleanShutdown() {
+            return state == STATE_CLEAN;
+        }
+    }
+
+    /**
+     * Ring of free-text entries, each a sequence stamp, a length and at most
+     * {@link #MAX_TEXT_BYTES} of UTF-8, padded to eight bytes. Writers claim
+     * space with an atomic add; a claim that would straddle the end of the
+     * ring is abandoned, the entries under its head part are invalidated, and
+     * space is claimed again after it. Like a record, an
+     * entry's stamp is invalidated first and published last, fenced on both
+     * sides, and an entry is only returned if its stamp matches the sequence
+     * it was written for both before and after the copy.
+     */
+    private static final class TextRing {
+        private static final int ENTRY_HEADER = 10;
+        private static final int MAX_TEXT_BYTES = 256;
+
+        private final ByteBuffer region;
+        private final AtomicLong position = new AtomicLong();
+
+        private TextRing(ByteBuffer region) {
+            this.region = region;
+        }
+
+        int put(long sequence, String value) {
+            if (value == null) {
+                return NO_STRING;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            int length = bytes.length;
+            if (length > MAX_TEXT_BYTES) {
+                // Cut at a character boundary rather than inside a multi-byte sequence.
+                length = MAX_TEXT_BYTES;
+                while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+                    length--;
+                }
+            }
+            int size = (ENTRY_HEADER + length + 7) & ~7;
+            int capacity = region.capacity();
+            if (size > capacity) {
+                return DROPPED_STRING;
+            }
+            int offset;
+            while (true) {
+                offset = (int) (position.getAndAdd(size) % capacity);
+                if (offset + size <= capacity) {
+                    break;
+                }
+                // The abandoned claim also covers the head of the ring up to
+                // where the next claim starts. Nothing writes there this lap, so
+                // entries in it are invalidated before later ones overlap them.
+                int end = offset + size - capacity;
+                for (int i = 0; i < end; i += 8) {
+                    LONGS.setOpaque(region, i, -1L);
+                }
+            }
+            LONGS.setOpaque(region, offset, -1L);
+            VarHandle.storeStoreFence();
+            region.putShort(offset + 8, (short) length);
+            region.put(offset + ENTRY_HEADER, bytes, 0, length);
+            LONGS.setRelease(region, offset, sequence);
+            return offset;
+        }
+
+        static String read(ByteBuffer region, int offset, long sequence) {
+            if (offset == NO_STRING) {
+                return null;
+            }
+            if (offset < 0 || offset + ENTRY_HEADER > region.limit()
+                    || (long) LONGS.getAcquire(region, offset) != sequence) {
+                return "<text overwritten>";
+            }
+            int length = Short.toUnsignedInt(region.getShort(offset + 8));
+            if (offset + ENTRY_HEADER + length > region.limit()) {
+                return "<text overwritten>";
+            }
+            byte[] bytes = new byte[length];
+            region.get(offset + ENTRY_HEADER, bytes);
+            VarHandle.loadLoadFence();
+            if ((long) LONGS.getAcquire(region, offset) != sequence) {
+                return "<text overwritten>";
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Append-only string table stored in the journal's string region as
+     * length-prefixed UTF-8, in id order. Once the region is full, new strings
+     * are recorded as missing.
+     */
+    private static final class StringTable {
+        private final ByteBuffer header;
+        private final ByteBuffer region;
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private int used;
+        private int count;
+
+        private StringTable(ByteBuffer header, ByteBuffer region) {
+            this.header = header;
+            this.region = region;
+        }
+
+        int intern(String value) {
+            if (value == null) {
+                return NO_STRING;
+            }
+            Integer id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+            return add(value);
+        }
+
+        synchronized int used() {
+            return used;
+        }
+
+        private synchronized int add(String value) {
+            Integer id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+            String stored = value.length() > MAX_STRING_LENGTH ? value.substring(0, MAX_STRING_LENGTH) : value;
+            byte[] bytes = stored.getBytes(StandardCharsets.UTF_8);
+            if (used + 2 + bytes.length > region.capacity()) {
+                return DROPPED_STRING;
+            }
+            region.putShort(used, (short) bytes.length);
+            region.put(used + 2, bytes);
+            used += 2 + bytes.length;
+            int next = count++;
+            INTS.setRelease(header, H_STRING_USED, used);
+            INTS.setRelease(header, H_STRING_COUNT, count);
+            ids.put(value, next);
+            return next;
+        }
+
+        synchronized void copyTo(StringTable target) {
+            synchronized (target) {
+                target.region.put(0, region, 0, used);
+                target.used = used;
+                target.count = count;
+                target.ids.putAll(ids);
+                INTS.setRelease(target.header, H_STRING_USED, used);
+                INTS.setRelease(target.header, H_STRING_COUNT, count);
+            }
+        }
+
+        static List<String> read(ByteBuffer region, int used) {
+            List<String> table = new ArrayList<>();
+            int limit = Math.min(Math.max(0, used), region.limit());
+            int position = 0;
+            while (position + 2 <= limit) {
+                int length = Short.toUnsignedInt(region.getShort(position));
+                if (position + 2 + length > limit) {
+                    break;
+                }
+                byte[] bytes = new byte[length];
+                region.get(position + 2, bytes);
+                table.add(new String(bytes, StandardCharsets.UTF_8));
+                position += 2 + length;
+            }
+            return table;
+        }
+    }
+}
@@ -11,7 +11,11 @@ public class GameEvent {
     private final GameEventPayload data;
 
     public GameEvent(EventType type, GameEventPayload data) {
-        this.timestamp = Instant.now();
+        this(Instant.now(), type, data);
+    }
+
+    public GameEvent(Instant timestamp, EventType type, GameEventPayload data) {
+        this.timestamp = timestamp;
         this.type = type;
         this.data = data;
     }
@@ -1,13 +1,8 @@
 package com.thunder.debugguardian.debug.replay;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.thunder.debugguardian.config.DebugConfig;
 import com.thunder.debugguardian.DebugGuardian;
-import com.thunder.debugguardian.debug.replay.GameEvent.CommandPayload;
-import com.thunder.debugguardian.debug.replay.GameEvent.EntitySpawnPayload;
-import com.thunder.debugguardian.debug.replay.GameEvent.GameEventPayload;
-import com.thunder.debugguardian.debug.replay.GameEvent.TickEventPayload;
+import com.thunder.debugguardian.debug.external.PostMortemReader;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
@@ -21,25 +16,32 @@ import net.neoforged.neoforge.event.CommandEvent;
 import net.neoforged.neoforge.event.entity.EntityJoinLevelEvent;
 import net.neoforged.neoforge.event.tick.ServerTickEvent;
 import net.neoforged.api.distmarker.Dist;
+import net.neoforged.fml.CrashReportCallables;
 import net.neoforged.fml.loading.FMLEnvironment;
+import net.neoforged.fml.loading.FMLPaths;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Deque;
-import java.util.concurrent.ConcurrentLinkedDeque;
 
 /**
  * Captures recent game events for a post-mortem dump upon a crash.
+ * <p>
+ * The journal is memory-mapped to {@code debugguardian/flight-recorder.dgj} so
+ * the last events survive even a hard JVM kill. It is marked clean from a
+ * shutdown hook and counts the crash reports generated; on the next start a
+ * journal that was not marked clean, or saw a crash report, is decoded by
+ * {@link PostMortemReader} before being replaced.
  */
 public class PostMortemRecorder {
-    private static PostMortemRecorder instance;
-    private Deque<GameEvent> buffer;
-    private volatile int capacity;
-    private final Gson gson;
+    private static final Path DIR = FMLPaths.GAMEDIR.get().resolve("debugguardian");
+    private static final Path JOURNAL_FILE = DIR.resolve("flight-recorder.dgj");
+
+    private static volatile PostMortemRecorder instance;
+    private volatile EventJournal journal;
+    private volatile CapturePolicy policy;
 
     private PostMortemRecorder() {
-        this.gson = new GsonBuilder().disableHtmlEscaping().create();
     }
 
     /**
@@ -48,13 +50,63 @@ public class PostMortemRecorder {
     public static void init() {
         if (instance == null) {
             instance = new PostMortemRecorder();
-            instance.capacity = Math.max(1, DebugConfig.get().postmortemBufferSize);
-            instance.buffer = new ConcurrentLinkedDeque<>();
+            instance.policy = CapturePolicy.fromConfig(DebugConfig.get());
+            int capacity = Math.max(1, DebugConfig.get().postmortemBufferSize);
+            recoverPreviousSession();
+            instance.journal = openJournal(capacity);
             NeoForge.EVENT_BUS.register(instance);
+            CrashReportCallables.registerCrashCallable("Debug Guardian post-mortem",
+                    PostMortemRecorder::onCrashReport);
+            Runtime.getRuntime().addShutdownHook(
+                    new Thread(PostMortemRecorder::onShutdown, "debugguardian-postmortem-shutdown"));
             registerClientHooks();
         }
     }
 
+    private static void recoverPreviousSession() {
+        if (!Files.exists(JOURNAL_FILE)) {
+            return;
+        }
+        try {
+            EventJournal.Summary recovered = PostMortemReader.recover(JOURNAL_FILE, DIR.resolve("postmortem"),
+                    FMLPaths.GAMEDIR.get().resolve("crash-reports"), DebugConfig.get().postMortemCompressDumps);
+            if (recovered != null) {
+                DebugGuardian.LOGGER.warn("[DebugGuardian] Previous session {}; recovered {} post-mortem events to {}",
+                        recovered.cleanShutdown() ? "generated a crash report" : "did not shut down cleanly",
+                        recovered.events(), DIR.resolve("postmortem"));
+            }
+        } catch (IOException e) {
+            DebugGuardian.LOGGER.warn("[DebugGuardian] Could not read previous flight-recorder journal", e);
+        }
+    }
+
+    private static EventJournal openJournal(int capacity) {
+        try {
+            Files.createDirectories(DIR);
+            return EventJournal.map(JOURNAL_FILE, capacity);
+        } catch (IOException | UnsupportedOperationException e) {
+            DebugGuardian.LOGGER.warn("[DebugGuardian] Could not map flight-recorder journal; keeping post-mortem "
+                    + "events in memory only", e);
+            return EventJournal.allocate(capacity);
+        }
+    }
+
+    private static String onCrashReport() {
+        EventJournal current = instance.journal;
+        current.markCrashReport();
+        return current.isMapped()
+                ? "journal at " + JOURNAL_FILE + ", decoded on next start"
+                : "journal in memory only (" + current.capacity() + " events)";
+    }
+
+    private static void onShutdown() {
+        EventJournal current = instance.journal;
+        // Crash reports are counted separately, so an orderly exit is always recorded as one.
+        if (current.isMapped()) {
+            current.markState(EventJournal.STATE_CLEAN);
+        }
+    }
+
     /**
      * Retrieve the singleton, initializing if needed.
      */
@@ -63,25 +115,38 @@ public class PostMortemRecorder {
         return instance;
     }
 
-    /** Record a single game event onto the buffer. */
+    /** Record a single game event onto the journal, replacing the oldest once full. */
     public void record(GameEvent event) {
-        buffer.addLast(event);
-        trimToCapacity();
+        if (policy.shouldRecord(event.getType())) {
+            journal.record(event);
+        }
     }
 
-    /** Convenience helper to create and record an event. */
-    private void record(GameEvent.EventType type, GameEventPayload payload) {
-        record(new GameEvent(type, payload));
+    /**
+     * Records a custom payload packet if post-mortem recording is running.
+     * Called from network threads, so the recorder is never created here.
+     */
+    public static void recordPacket(GameEvent.EventType type, String direction, String channel, int payloadSize) {
+        PostMortemRecorder recorder = instance;
+        if (recorder != null && recorder.journal != null && recorder.policy.shouldRecord(type)) {
+            recorder.journal.packet(type, direction, channel, payloadSize, null);
+        }
     }
 
     public void recordClientTick(Level level) {
+        if (!policy.shouldRecord(GameEvent.EventType.TICK)) {
+            return;
+        }
         Long gameTime = level != null ? level.getGameTime() : null;
         String dimension = level != null ? level.dimension().location().toString() : "client";
-        record(GameEvent.EventType.TICK, new TickEventPayload("client", "POST", gameTime, dimension));
+        journal.tick("client", "POST", gameTime, dimension);
     }
 
     @SubscribeEvent
     public void onServerTick(ServerTickEvent.Post evt) {
+        if (!policy.shouldRecord(GameEvent.EventType.TICK)) {
+            return;
+        }
         MinecraftServer server = evt.getServer();
         String dimension = null;
         Long gameTime = null;
@@ -92,17 +157,17 @@ public class PostMortemRecorder {
                 dimension = overworld.dimension().location().toString();
             }
         }
-        record(GameEvent.EventType.TICK, new TickEventPayload("server", "POST", gameTime, dimension));
+        journal.tick("server", "POST", gameTime, dimension);
     }
 
     @SubscribeEvent
     public void onEntityJoinLevel(EntityJoinLevelEvent event) {
         Entity entity = event.getEntity();
         Level level = event.getLevel();
-        if (!level.isClientSide()) {
+        if (!level.isClientSide() && policy.shouldRecordSpawn(entity.getType())) {
             ResourceLocation dimensionId = level.dimension().location();
             Component displayName = entity.getName();
-            EntitySpawnPayload payload = new EntitySpawnPayload(
+            journal.entitySpawn(
                     entity.getEncodeId(),
                     displayName != null ? displayName.getString() : null,
                     entity.getUUID(),
@@ -112,12 +177,14 @@ public class PostMortemRecorder {
                     dimensionId.toString(),
                     false
             );
-            record(GameEvent.EventType.ENTITY_SPAWN, payload);
         }
     }
 
     @SubscribeEvent
     public void onCommand(CommandEvent event) {
+        if (!policy.shouldRecord(GameEvent.EventType.COMMAND)) {
+            return;
+        }
         CommandSourceStack source = event.getParseResults().getContext().getSource();
         String commandString = event.getParseResults().getReader().getString();
         Vec3 pos = source.getPosition();
@@ -125,14 +192,13 @@ public class PostMortemRecorder {
         double[] position = pos != null ? new double[]{pos.x, pos.y, pos.z} : null;
         String dimension = level != null ? level.dimension().location().toString() : null;
         boolean executesOnServer = level == null || !level.isClientSide();
-        CommandPayload payload = new CommandPayload(
+        journal.command(
                 source.getTextName(),
                 commandString,
                 position,
                 dimension,
                 executesOnServer
         );
-        record(GameEvent.EventType.COMMAND, payload);
     }
 
     /**
@@ -143,30 +209,36 @@ public class PostMortemRecorder {
             return;
         }
         PostMortemRecorder recorder = get();
-        recorder.capacity = Math.max(1, DebugConfig.get().postmortemBufferSize);
-        recorder.trimToCapacity();
+        recorder.policy = CapturePolicy.fromConfig(DebugConfig.get());
+        int capacity = Math.max(1, DebugConfig.get().postmortemBufferSize);
+        synchronized (recorder) {
+            if (recorder.journal.capacity() == capacity) {
+                return;
+            }
+            if (recorder.journal.isMapped()) {
+                // The mapped file is sized at startup; remapping live would lose the crash-safe copy.
+                DebugGuardian.LOGGER.info("[DebugGuardian] Post-mortem buffer size change to {} applies after restart",
+                        capacity);
+                return;
+            }
+            // Events recorded while the journal is being copied may be dropped.
+            recorder.journal = recorder.journal.resize(capacity);
+        }
     }
 
     /**
-     * Dump the current buffer to a JSON file in the crash directory.
+     * Dump the current journal to a binary file in the crash directory. Use
+     * {@link PostMortemReader} to decode it.
      */
     public void dump(Path crashDir) {
         try {
             Files.createDirectories(crashDir);
-            Path out = crashDir.resolve("postmortem.json");
-            String json = gson.toJson(buffer);
-            Files.writeString(out, json);
+            journal.write(crashDir.resolve("postmortem.dgj"));
         } catch (IOException e) {
             DebugGuardian.LOGGER.error("Failed to dump post-mortem buffer", e);
         }
     }
 
-    private void trimToCapacity() {
-        while (buffer.size() > capacity) {
-            buffer.pollFirst();
-        }
-    }
-
     private static void registerClientHooks() {
         if (FMLEnvironment.dist != Dist.CLIENT) {
             return;
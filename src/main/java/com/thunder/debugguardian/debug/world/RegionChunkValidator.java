@@ -0,0 +1,337 @@
+package com.thunder.debugguardian.debug.world;
+
+import net.jpountz.lz4.LZ4BlockInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Deep validation of the chunks stored in one region file.
+ * <p>
+ * For every chunk listed in the header the 5-byte length and compression
+ * prefix is read and checked against the sectors it was allocated, the
+ * payload (or the external {@code c.x.z.mcc} file for oversized chunks) is
+ * stream-decompressed and its NBT structure is walked without building any
+ * tags. Sector ranges are checked for overlap. Problems are counted per kind
+ * and reported once per region file with the first affected chunk, so a badly
+ * damaged file does not flood the report.
+ * <p>
+ * zlib {@link Inflater}s are pooled across files and threads. Compressed
+ * bytes are read into a per-thread buffer, as chunks are at most 1 MiB.
+ */
+final class RegionChunkValidator {
+    private static final int SECTOR_BYTES = 4096;
+    private static final int CHUNKS = 1024;
+    private static final int MAX_NBT_DEPTH = 512;
+    private static final int INFLATER_POOL_SIZE = 64;
+
+    private static final BlockingQueue<Inflater> INFLATERS = new ArrayBlockingQueue<>(INFLATER_POOL_SIZE);
+    private static final ThreadLocal<byte[]> PAYLOAD_BUFFER = ThreadLocal.withInitial(() -> new byte[256 * 1024]);
+
+    private RegionChunkValidator() {
+    }
+
+    /**
+     * Outcome of validating one region file.
+     *
+     * @param externalFiles names of the {@code .mcc} files its chunks refer to
+     * @param complete      {@code false} if the file could not be read to the end
+     */
+    record Result(int chunks, long nanos, Set<String> externalFiles, boolean complete) {
+    }
+
+    /**
+     * Validates the chunks of {@code file}, whose 4 KiB location table has
+     * already been read into {@code header}. Checks in with {@code control}
+     * before reading each chunk.
+     */
+    static Result validate(Path file, String label, ByteBuffer header, long size, ScanControl control,
+                           List<String> warnings, List<String> errors) {
+        long start = System.nanoTime();
+        int[] regionPos = regionCoordinates(file);
+        Map<String, Problem> problems = new LinkedHashMap<>();
+        Set<String> externalFiles = new HashSet<>();
+        long totalSectors = size / SECTOR_BYTES;
+        // offset << 35 | end << 10 | index, so sorting orders chunks by first sector
+        long[] ranges = new long[CHUNKS];
+        int listed = 0;
+        boolean complete = true;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer prefix = ByteBuffer.allocate(5);
+            for (int index = 0; index < CHUNKS; index++) {
+                int entry = header.getInt(index * 4);
+                int offset = (entry >>> 8) & 0xFFFFFF;
+                int sectors = entry & 0xFF;
+                if (sectors == 0 || offset < 2 || (long) offset + sectors > totalSectors) {
+                    // Reported by the header check.
+                    continue;
+                }
+                ranges[listed++] = ((long) offset << 35) | ((long) (offset + sectors) << 10) | index;
+                String chunk = chunkName(regionPos, index);
+                control.acquireBytes((long) sectors * SECTOR_BYTES);
+
+                prefix.clear();
+                if (!readFully(channel, prefix, (long) offset * SECTOR_BYTES)) {
+                    record(problems, "have truncated length headers", chunk, null);
+                    continue;
+                }
+                int length = prefix.getInt(0);
+                int compression = prefix.get(4) & 0xFF;
+                if (length <= 0) {
+                    record(problems, "have a zero or negative length", chunk, null);
+                    continue;
+                }
+                if (length + 4L > (long) sectors * SECTOR_BYTES) {
+                    record(problems, "are longer than their allocated sectors", chunk,
+                            length + " bytes in " + sectors + " sectors");
+                    continue;
+                }
+
+                try {
+                    if ((compression & 0x80) != 0) {
+                        String external = "c." + chunk.replace(',', '.') + ".mcc";
+                        Path externalFile = file.resolveSibling(external);
+                        // Listed even when missing, so a cached result is rechecked once it appears.
+                        externalFiles.add(external);
+                        if (regionPos == null || Files.notExists(externalFile)) {
+                            record(problems, "are stored externally but their .mcc file is missing", chunk, external);
+                            continue;
+                        }
+                        try (InputStream in = Files.newInputStream(externalFile)) {
+                            checkPayload(in, compression & 0x7F);
+                        }
+                    } else {
+                        byte[] payload = payloadBuffer(length - 1);
+                        ByteBuffer target = ByteBuffer.wrap(payload, 0, length - 1);
+                        if (!readFully(channel, target, (long) offset * SECTOR_BYTES + 5)) {
+                            record(problems, "have truncated payloads", chunk, null);
+                            continue;
+                        }
+                        checkPayload(new ByteArrayInputStream(payload, 0, length - 1), compression);
+                    }
+                } catch (UnsupportedCompressionException e) {
+                    record(problems, "use an unknown compression type", chunk, e.getMessage());
+                } catch (EOFException e) {
+                    record(problems, "end before their NBT data is complete", chunk, null);
+                } catch (ZipException e) {
+                    record(problems, "fail to decompress", chunk, e.getMessage());
+                } catch (IOException | RuntimeException e) {
+                    record(problems, "contain invalid NBT data", chunk, e.getMessage());
+                } catch (LinkageError e) {
+                    record(problems, "could not be checked (" + e + ")", chunk, null);
+                }
+            }
+        } catch (IOException e) {
+            complete = false;
+            warnings.add("Failed to deep-scan " + label + " region file " + file.getFileName() + ": " + e.getMessage());
+        }
+
+        checkOverlaps(ranges, listed, regionPos, problems);
+        for (Map.Entry<String, Problem> problem : problems.entrySet()) {
+            Problem p = problem.getValue();
+            errors.add(label + " region file " + file.getFileName() + ": " + p.count + " chunk(s) "
+                    + problem.getKey() + " (first at chunk " + p.firstChunk
+                    + (p.detail != null ? ": " + p.detail : "") + ")");
+        }
+        return new Result(listed, System.nanoTime() - start, externalFiles, complete);
+    }
+
+    private static void checkOverlaps(long[] ranges, int listed, int[] regionPos, Map<String, Problem> problems) {
+        Arrays.sort(ranges, 0, listed);
+        long previousEnd = 0;
+        for (int i = 0; i < listed; i++) {
+            long start = ranges[i] >>> 35;
+            long end = (ranges[i] >>> 10) & 0x1FFFFFFL;
+            if (start < previousEnd) {
+                record(problems, "share sectors with another chunk", chunkName(regionPos, (int) (ranges[i] & 0x3FF)),
+                        "sector " + start);
+            }
+            previousEnd = Math.max(previousEnd, end);
+        }
+    }
+
+    private static void checkPayload(InputStream raw, int compression) throws IOException {
+        switch (compression) {
+            case 1 -> {
+                try (InputStream in = new GZIPInputStream(raw)) {
+                    skipNbt(in);
+                }
+            }
+            case 2 -> {
+                Inflater inflater = borrowInflater();
+                try {
+                    skipNbt(new InflaterInputStream(raw, inflater, 8192));
+                } finally {
+                    releaseInflater(inflater);
+                }
+            }
+            case 3 -> skipNbt(raw);
+            case 4 -> {
+                try (InputStream in = new LZ4BlockInputStream(raw)) {
+                    skipNbt(in);
+                }
+            }
+            default -> throw new UnsupportedCompressionException("type " + compression);
+        }
+    }
+
+    /**
+     * Walks one named root compound tag, skipping every payload.
+     */
+    static void skipNbt(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in, 8192));
+        int type = data.readUnsignedByte();
+        if (type != 10) {
+            throw new IOException("root tag is type " + type + ", not a compound");
+        }
+        data.skipNBytes(data.readUnsignedShort());
+        skipPayload(data, type, 0);
+    }
+
+    private static void skipPayload(DataInputStream data, int type, int depth) throws IOException {
+        if (depth > MAX_NBT_DEPTH) {
+            throw new IOException("NBT nested deeper than " + MAX_NBT_DEPTH);
+        }
+        switch (type) {
+            case 1 -> data.skipNBytes(1);
+            case 2 -> data.skipNBytes(2);
+            case 3, 5 -> data.skipNBytes(4);
+            case 4, 6 -> data.skipNBytes(8);
+            case 7 -> data.skipNBytes(length(data));
+            case 8 -> data.skipNBytes(data.readUnsignedShort());
+            case 9 -> {
+                int elementType = data.readUnsignedByte();
+                int count = length(data);
+                if (elementType == 0 && count > 0) {
+                    throw new IOException("list of end tags with " + count + " elements");
+                }
+                for (int i = 0; i < count; i++) {
+                    skipPayload(data, elementType, depth + 1);
+                }
+            }
+            case 10 -> {
+                int child;
+                while ((child = data.readUnsignedByte()) != 0) {
+                    data.skipNBytes(data.readUnsignedShort());
+                    skipPayload(data, child, depth + 1);
+                }
+            }
+            case 11 -> data.skipNBytes(length(data) * 4L);
+            case 12 -> data.skipNBytes(length(data) * 8L);
+            default -> throw new IOException("unknown tag type " + type);
+        }
+    }
+
+    private static int length(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        if (length < 0) {
+            throw new IOException("negative length " + length);
+        }
+        return length;
+    }
+
+    private static Inflater borrowInflater() {
+        Inflater inflater = INFLATERS.poll();
+        return inflater != null ? inflater : new Inflater();
+    }
+
+    private static void releaseInflater(Inflater inflater) {
+        inflater.reset();
+        if (!INFLATERS.offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    private static byte[] payloadBuffer(int length) {
+        byte[] buffer = PAYLOAD_BUFFER.get();
+        if (buffer.length < length) {
+            buffer = new byte[length];
+            PAYLOAD_BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            int read = channel.read(target, position);
+            if (read < 0) {
+                return false;
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    /**
+     * Parses {@code r.X.Z.mca}; returns {@code null} for other names.
+     */
+    private static int[] regionCoordinates(Path file) {
+        String[] parts = file.getFileName().toString().split("\\.");
+        if (parts.length != 4) {
+            return null;
+        }
+        try {
+            return new int[]{Integer.parseInt(parts[1]), Integer.parseInt(parts[2])};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String chunkName(int[] regionPos, int index) {
+        int x = index & 31;
+        int z = index >> 5;
+        if (regionPos != null) {
+            x += regionPos[0] * 32;
+            z += regionPos[1] * 32;
+        }
+        return x + "," + z;
+    }
+
+    private static void record(Map<String, Problem> problems, String kind, String chunk, String detail) {
+        Problem problem = problems.get(kind);
+        if (problem == null) {
+            problems.put(kind, new Problem(chunk, detail));
+        } else {
+            problem.count++;
+        }
+    }
+
+    private static final class Problem {
+        private final String firstChunk;
+        private final String detail;
+        private int count = 1;
+
+        private Problem(String firstChunk, String detail) {
+            this.firstChunk = firstChunk;
+            this.detail = detail;
+        }
+    }
+
+    private static final class UnsupportedCompressionException extends IOException {
+        private UnsupportedCompressionException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.thunder.debugguardian.debug.world;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Findings of previous scans, keyed per region file by its world-relative path
+ * and fingerprinted by size, modification time and a hash of its 8 KiB header.
+ * <p>
+ * The header holds the location and timestamp tables, which change whenever a
+ * chunk is saved, so a matching fingerprint means the file's chunks have not
+ * been rewritten since it was last inspected and its findings can be reused.
+ * Findings of a deep scan also answer a header-only scan, as long as every
+ * {@code .mcc} file its chunks refer to still has the size and modification
+ * time it had when it was validated. Only the files seen
+ * in the current scan are written back, so deleted regions drop out. Bump
+ * {@link #CACHE_VERSION} whenever the checks change what they report.
+ * <p>
+ * A long scan also writes checkpoints: every entry found so far merged over
+ * the previous ones, marked incomplete. A scan interrupted by a cancel or a
+ * restart therefore resumes where it stopped, as the files it had already
+ * inspected are answered from the cache.
+ */
+final class RegionScanCache {
+    private static final int CACHE_MAGIC = 0x44475753; // "DGWS"
+    private static final int CACHE_VERSION = 3;
+
+    private final Path file;
+    private final Map<String, Entry> previous;
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+
+    private RegionScanCache(Path file, Map<String, Entry> previous) {
+        this.file = file;
+        this.previous = previous;
+    }
+
+    /**
+     * Fingerprint and findings of one region file, with the size and
+     * modification time of each external chunk file it refers to.
+     */
+    record Entry(long size, long modified, long headerHash, boolean deep,
+                 List<String> warnings, List<String> errors, Map<String, FileStamp> externalFiles) {
+    }
+
+    /**
+     * Size and modification time of an external chunk file.
+     */
+    record FileStamp(long size, long modified) {
+        /**
+         * Stamps {@code file}, or returns {@code null} if it cannot be read.
+         */
+        static FileStamp of(Path file) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                return new FileStamp(attributes.size(), attributes.lastModifiedTime().toMillis());
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * A cache that never matches and is never saved.
+     */
+    static RegionScanCache disabled() {
+        return new RegionScanCache(null, Map.of());
+    }
+
+    /**
+     * Loads the cache for {@code worldDir} from {@code cacheDir}, starting empty
+     * if it is missing, from another version or unreadable.
+     */
+    static RegionScanCache load(Path cacheDir, Path worldDir, List<String> warnings) {
+        Path file = cacheDir.resolve(cacheFileName(worldDir));
+        Map<String, Entry> entries = new HashMap<>();
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                if (in.readInt() == CACHE_MAGIC && in.readInt() == CACHE_VERSION) {
+                    in.readBoolean();
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        String key = in.readUTF();
+                        entries.put(key, new Entry(in.readLong(), in.readLong(), in.readLong(), in.readBoolean(),
+                                readStrings(in), readStrings(in), readStamps(in)));
+                    }
+                }
+            } catch (IOException e) {
+                entries.clear();
+                warnings.add("Discarded unreadable world scan cache " + file.getFileName() + ": " + e.getMessage());
+            }
+        }
+        return new RegionScanCache(file, entries);
+    }
+
+    /**
+     * Returns the cached findings if the fingerprint still matches, every
+     * external chunk file in {@code regionDir} is unchanged and the findings
+     * are at least as thorough as requested, carrying the entry into the next
+     * save.
+     */
+    Entry lookup(String key, long size, long modified, long headerHash, boolean deep, Path regionDir) {
+        Entry entry = previous.get(key);
+        if (entry == null || entry.size != size || entry.modified != modified || entry.headerHash != headerHash
+                || (deep && !entry.deep)) {
+            return null;
+        }
+        for (Map.Entry<String, FileStamp> external : entry.externalFiles.entrySet()) {
+            if (!external.getValue().equals(FileStamp.of(regionDir.resolve(external.getKey())))) {
+                return null;
+            }
+        }
+        current.put(key, entry);
+        return entry;
+    }
+
+    void store(String key, Entry entry) {
+        if (file != null) {
+            current.put(key, entry);
+        }
+    }
+
+    /**
+     * Returns whether the last scan of {@code worldDir} stopped at a checkpoint
+     * instead of completing.
+     */
+    static boolean hasCheckpoint(Path cacheDir, Path worldDir) {
+        Path file = cacheDir.resolve(cacheFileName(worldDir));
+        if (Files.notExists(file)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return in.readInt() == CACHE_MAGIC && in.readInt() == CACHE_VERSION && !in.readBoolean();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the entries of a completed scan.
+     */
+    void save() throws IOException {
+        write(current, true);
+    }
+
+    /**
+     * Writes the entries found so far over the previous ones, so an interrupted
+     * scan loses nothing.
+     */
+    void saveCheckpoint() throws IOException {
+        Map<String, Entry> merged = new HashMap<>(previous);
+        merged.putAll(current);
+        write(merged, false);
+    }
+
+    private synchronized void write(Map<String, Entry> entries, boolean complete) throws IOException {
+        if (file == null) {
+            return;
+        }
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(CACHE_MAGIC);
+            out.writeInt(CACHE_VERSION);
+            out.writeBoolean(complete);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry> cached : entries.entrySet()) {
+                Entry entry = cached.getValue();
+                out.writeUTF(cached.getKey());
+                out.writeLong(entry.size);
+                out.writeLong(entry.modified);
+                out.writeLong(entry.headerHash);
+                out.writeBoolean(entry.deep);
+                writeStrings(out, entry.warnings);
+                writeStrings(out, entry.errors);
+                out.writeInt(entry.externalFiles.size());
+                for (Map.Entry<String, FileStamp> external : entry.externalFiles.entrySet()) {
+                    out.writeUTF(external.getKey());
+                    out.writeLong(external.getValue().size());
+                    out.writeLong(external.getValue().modified());
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> strings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            strings.add(in.readUTF());
+        }
+        return List.copyOf(strings);
+    }
+
+    private static Map<String, FileStamp> readStamps(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Map<String, FileStamp> stamps = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            stamps.put(in.readUTF(), new FileStamp(in.readLong(), in.readLong()));
+        }
+        return Map.copyOf(stamps);
+    }
+
+    private static void writeStrings(DataOutputStream out, Collection<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            out.writeUTF(string);
+        }
+    }
+
+    private static String cacheFileName(Path worldDir) {
+        Path absolute = worldDir.toAbsolutePath().normalize();
+        String name = absolute.getFileName() != null ? absolute.getFileName().toString() : "world";
+        return "scan-cache-" + name.replaceAll("[^A-Za-z0-9._-]", "_") + "-"
+                + Integer.toHexString(absolute.toString().hashCode()) + ".bin";
+    }
+}
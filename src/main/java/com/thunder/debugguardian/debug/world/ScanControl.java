@@ -0,0 +1,193 @@
+package com.thunder.debugguardian.debug.world;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Cancellation and throttling for one world scan.
+ * <p>
+ * Scan workers check in before every region file and before reading each
+ * chunk of a deep scan, and report the time they spent on a file afterwards.
+ * At each check-in a cancelled scan stops, a paused scan waits to be resumed,
+ * and while the server's average tick time is above the backoff threshold the
+ * worker sleeps with exponential backoff. Reads draw from a token bucket
+ * refilled at the IO limit, so a scan beside a running server leaves disk
+ * bandwidth for chunk saving. A duty cycle below 100% additionally makes each
+ * worker sleep after every file so that it works for at most that share of
+ * wall time.
+ */
+public final class ScanControl {
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final int dutyCyclePercent;
+    private final TokenBucket io;
+    private final DoubleSupplier msptProbe;
+    private final double backoffMspt;
+    private final AtomicLong bytesRead = new AtomicLong();
+    private volatile boolean cancelled;
+    private boolean paused;
+
+    /**
+     * @param dutyCyclePercent share of wall time a worker may spend scanning,
+     *                         1 to 100
+     */
+    public ScanControl(int dutyCyclePercent) {
+        this(dutyCyclePercent, 0L, null, 0.0);
+    }
+
+    /**
+     * @param dutyCyclePercent  share of wall time a worker may spend scanning,
+     *                          1 to 100
+     * @param ioBytesPerSecond  read rate limit shared by all workers, or 0 for
+     *                          none
+     * @param msptProbe         average milliseconds per tick of the server, or
+     *                          {@code null} to never back off
+     * @param backoffMspt       tick time above which workers back off
+     */
+    public ScanControl(int dutyCyclePercent, long ioBytesPerSecond, DoubleSupplier msptProbe, double backoffMspt) {
+        this.dutyCyclePercent = Math.max(1, Math.min(100, dutyCyclePercent));
+        this.io = ioBytesPerSecond > 0L ? new TokenBucket(ioBytesPerSecond) : null;
+        this.msptProbe = backoffMspt > 0.0 ? msptProbe : null;
+        this.backoffMspt = backoffMspt;
+    }
+
+    public static ScanControl unthrottled() {
+        return new ScanControl(100);
+    }
+
+    public synchronized void cancel() {
+        cancelled = true;
+        notifyAll();
+    }
+
+    public synchronized void pause() {
+        paused = true;
+    }
+
+    public synchronized void resume() {
+        paused = false;
+        notifyAll();
+    }
+
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException("World scan cancelled");
+        }
+    }
+
+    /**
+     * Returns once the scan may continue: not paused and the server not
+     * overloaded. Throws if the scan is cancelled meanwhile.
+     */
+    void checkpoint() {
+        checkCancelled();
+        synchronized (this) {
+            try {
+                while (paused && !cancelled) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+            }
+        }
+        checkCancelled();
+        if (msptProbe != null) {
+            long backoff = MIN_BACKOFF_NANOS;
+            while (msptProbe.getAsDouble() > backoffMspt) {
+                sleep(backoff);
+                backoff = Math.min(MAX_BACKOFF_NANOS, backoff * 2);
+            }
+        }
+    }
+
+    /**
+     * Checks in and then waits until {@code bytes} may be read under the IO
+     * limit.
+     */
+    void acquireBytes(long bytes) {
+        checkpoint();
+        bytesRead.addAndGet(bytes);
+        if (io != null) {
+            sleep(io.reserve(bytes));
+        }
+    }
+
+    /**
+     * Returns the bytes passed to {@link #acquireBytes(long)} so far, which is
+     * what the scan actually read.
+     */
+    long bytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * Called by a worker after spending {@code workNanos} on one file.
+     */
+    void afterWork(long workNanos) {
+        checkCancelled();
+        if (dutyCyclePercent >= 100 || workNanos <= 0L) {
+            return;
+        }
+        sleep(workNanos * (100 - dutyCyclePercent) / dutyCyclePercent);
+    }
+
+    /**
+     * Sleeps for {@code nanos}, waking early if the scan is cancelled.
+     */
+    private void sleep(long nanos) {
+        if (nanos <= 0L) {
+            return;
+        }
+        long deadline = System.nanoTime() + nanos;
+        synchronized (this) {
+            try {
+                long remaining;
+                while (!cancelled && (remaining = deadline - System.nanoTime()) > 0L) {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+            }
+        }
+        checkCancelled();
+    }
+
+    /**
+     * Token bucket holding up to one second of reads. A reservation larger than
+     * the balance goes into debt, and the caller sleeps until it is repaid, so
+     * large chunks are throttled without splitting them.
+     */
+    private static final class TokenBucket {
+        private final double bytesPerNano;
+        private final double capacity;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        private TokenBucket(long bytesPerSecond) {
+            this.bytesPerNano = bytesPerSecond / 1_000_000_000.0;
+            this.capacity = bytesPerSecond;
+            this.tokens = capacity;
+        }
+
+        /**
+         * Takes {@code bytes} from the bucket and returns how long the caller
+         * must wait before reading them.
+         */
+        private synchronized long reserve(long bytes) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * bytesPerNano);
+            refilledAt = now;
+            tokens -= bytes;
+            return tokens >= 0.0 ? 0L : (long) (-tokens / bytesPerNano);
+        }
+    }
+}
@@ -1,15 +1,24 @@
 package com.thunder.debugguardian.debug.world;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Immutable record describing the outcome of a world integrity scan.
+ *
+ * @param newWorld {@code true} if the world looks freshly generated and its
+ *                 only warnings were the expected missing data
+ * @param stats    region throughput, or {@code null} if no scan ran
  */
-public record WorldInspectionResult(Path worldDir, List<String> errors, List<String> warnings) {
+public record WorldInspectionResult(Path worldDir, List<String> errors, List<String> warnings,
+                                    boolean newWorld, ScanStats stats) {
     private static final DateTimeFormatter REPORT_TIME_FORMAT =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
@@ -18,6 +27,10 @@ public record WorldInspectionResult(Path worldDir, List<String> errors, List<Str
         warnings = List.copyOf(warnings);
     }
 
+    public WorldInspectionResult(Path worldDir, List<String> errors, List<String> warnings) {
+        this(worldDir, errors, warnings, false, null);
+    }
+
     public String status() {
         if (!errors.isEmpty()) {
             return "ERRORS";
@@ -42,6 +55,24 @@ public record WorldInspectionResult(Path worldDir, List<String> errors, List<Str
         return 0;
     }
 
+    /**
+     * Returns the first critical issue, or the first warning if there are none.
+     */
+    public String firstIssue() {
+        if (!errors.isEmpty()) {
+            return errors.get(0);
+        }
+        return warnings.isEmpty() ? null : warnings.get(0);
+    }
+
+    public void writeReport(Path reportFile) throws IOException {
+        Path parent = reportFile.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.write(reportFile, buildReportLines(), StandardCharsets.UTF_8);
+    }
+
     public List<String> buildReportLines() {
         return buildReportLines(LocalDateTime.now(), REPORT_TIME_FORMAT);
     }
@@ -53,6 +84,9 @@ public record WorldInspectionResult(Path worldDir, List<String> errors, List<Str
         report.add("World: " + worldDir.toAbsolutePath());
         report.add("Status: " + status());
         report.add("Summary: " + summaryCounts());
+        if (stats != null) {
+            report.add("Scan: " + stats.describe());
+        }
         report.add("");
 
         if (!errors.isEmpty()) {
@@ -67,11 +101,68 @@ public record WorldInspectionResult(Path worldDir, List<String> errors, List<Str
             report.add("");
         }
 
+        if (stats != null && !stats.slowestRegions().isEmpty()) {
+            report.add("Slowest regions:");
+            stats.slowestRegions().forEach(r -> report.add(" - " + r.describe()));
+            report.add("");
+        }
+
         if (errors.isEmpty() && warnings.isEmpty()) {
-            report.add("No problems were detected.");
+            if (newWorld) {
+                report.add("This world appears to be newly generated; no errors have been found yet.");
+            } else {
+                report.add("No problems were detected.");
+            }
             report.add("");
         }
 
         return report;
     }
+
+    /**
+     * Region file throughput of a scan.
+     *
+     * @param regionBytes    total size of the region files covered
+     * @param bytesRead      bytes actually read; cache hits and header-only
+     *                       scans read only each file's header
+     * @param chunks         chunks decompressed and parsed by a deep scan
+     * @param cachedFiles    region files whose findings were reused from an
+     *                       earlier scan
+     * @param slowestRegions the regions a deep scan spent longest on, slowest first
+     */
+    public record ScanStats(long regionFiles, long regionBytes, long bytesRead, long durationNanos, int threads,
+                            long chunks, long cachedFiles, List<RegionTiming> slowestRegions) {
+        public ScanStats {
+            slowestRegions = List.copyOf(slowestRegions);
+        }
+
+        public double seconds() {
+            return Math.max(1L, durationNanos) / 1_000_000_000.0;
+        }
+
+        public String describe() {
+            double megabytes = regionBytes / (1024.0 * 1024.0);
+            double megabytesRead = bytesRead / (1024.0 * 1024.0);
+            String line = String.format(Locale.ROOT,
+                    "%d region files (%.1f MiB) in %.2f s on %d threads, %.0f files/s, %.1f MiB read (%.1f MiB/s)",
+                    regionFiles, megabytes, seconds(), threads, regionFiles / seconds(), megabytesRead,
+                    megabytesRead / seconds());
+            if (chunks > 0) {
+                line += String.format(Locale.ROOT, ", %d chunks parsed (%.0f chunks/s)", chunks, chunks / seconds());
+            }
+            if (cachedFiles > 0) {
+                line += ", " + cachedFiles + " unchanged files reused from cache";
+            }
+            return line;
+        }
+    }
+
+    /**
+     * Time a deep scan spent on one region file.
+     */
+    public record RegionTiming(String region, int chunks, long nanos) {
+        public String describe() {
+            return String.format(Locale.ROOT, "%s: %d chunks in %.1f ms", region, chunks, nanos / 1_000_000.0);
+        }
+    }
 }
@@ -3,70 +3,196 @@ package com.thunder.debugguardian.debug.world;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
-import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.FileChannel;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipException;
 
 /**
- * Performs heuristic inspections of a world save folder. The logic mirrors the
- * standalone {@code WorldCheckHelper} application but can be reused from inside
- * the main game process for automated checks.
+ * Performs heuristic inspections of a world save folder, either from the
+ * standalone {@code WorldCheckHelper} application or from inside the main game
+ * process for automated checks.
+ * <p>
+ * Region files dominate the cost on large worlds, so every region directory and
+ * every {@code .mca} file in it is inspected as a task on a bounded
+ * {@link ForkJoinPool} of minimum-priority threads, which check in with a
+ * {@link ScanControl} for cancellation and throttling. Headers are read with positional reads into a direct
+ * buffer reused by each worker thread. Findings are merged back in directory
+ * order, so reports do not depend on scheduling.
+ * <p>
+ * A deep scan additionally hands every region file to
+ * {@link RegionChunkValidator}, which decompresses and parses each chunk, and
+ * reports the slowest regions alongside the throughput.
+ * <p>
+ * Given a cache directory, per-file findings are kept in a
+ * {@link RegionScanCache} and reused for region files whose fingerprint is
+ * unchanged, so repeated scans of a mostly idle world only re-read its header
+ * tables while still producing the full report. The cache is checkpointed
+ * every {@value #CHECKPOINT_INTERVAL_SECONDS} seconds and on cancellation, so
+ * an interrupted scan resumes from where it stopped.
  */
 public final class WorldIntegrityScanner {
+    private static final int LOCATION_BYTES = 4096;
+    private static final int HEADER_BYTES = 8192;
+    private static final int MAX_DEFAULT_PARALLELISM = 4;
+    private static final int SLOWEST_REGIONS = 10;
+    private static final long CHECKPOINT_INTERVAL_SECONDS = 30L;
+    private static final ThreadLocal<ByteBuffer> HEADER_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(HEADER_BYTES));
+
     private WorldIntegrityScanner() {
     }
 
-    public static WorldInspectionResult scan(Path worldDir) {
+    /**
+     * Scans without throttling, as the standalone checker does.
+     *
+     * @param deep     also decompress and parse every chunk in every region file
+     * @param cacheDir directory holding the findings of earlier scans, or
+     *                 {@code null} to inspect every file
+     */
+    public static WorldInspectionResult scan(Path worldDir, int parallelism, boolean deep, Path cacheDir) {
+        return scan(worldDir, parallelism, deep, cacheDir, ScanControl.unthrottled());
+    }
+
+    /**
+     * @param control cancels or throttles the scan
+     * @throws CancellationException if the scan is cancelled before it
+     *                               completes; the cache then holds a
+     *                               checkpoint to resume from
+     */
+    public static WorldInspectionResult scan(Path worldDir, int parallelism, boolean deep, Path cacheDir,
+                                             ScanControl control) {
         List<String> errors = new ArrayList<>();
         List<String> warnings = new ArrayList<>();
+        long start = System.nanoTime();
 
         if (!Files.isDirectory(worldDir)) {
             errors.add("World directory does not exist or is not a directory: " + worldDir.toAbsolutePath());
             return new WorldInspectionResult(worldDir, errors, warnings);
         }
 
-        inspectWorld(worldDir, warnings, errors);
-        return new WorldInspectionResult(worldDir, errors, warnings);
+        RegionScanCache cache = cacheDir != null
+                ? RegionScanCache.load(cacheDir, worldDir, warnings)
+                : RegionScanCache.disabled();
+        InspectionState state = new InspectionState(worldDir, deep, cache, control);
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism), WorldIntegrityScanner::newWorker, null, false);
+        try {
+            inspectWorld(worldDir, pool, state, warnings, errors);
+        } catch (CancellationException e) {
+            state.checkpoint();
+            throw e;
+        } finally {
+            pool.shutdownNow();
+        }
+        try {
+            cache.save();
+        } catch (IOException e) {
+            warnings.add("Failed to save world scan cache: " + e.getMessage());
+        }
+
+        boolean newWorld = errors.isEmpty() && state.isBrandNewWorld();
+        if (newWorld) {
+            state.removeNewWorldWarnings(warnings);
+            newWorld = warnings.isEmpty();
+        }
+        WorldInspectionResult.ScanStats stats = new WorldInspectionResult.ScanStats(
+                state.regionFiles.get(), state.regionBytes.get(), control.bytesRead(), System.nanoTime() - start,
+                Math.max(1, parallelism), state.chunks.get(), state.cachedFiles.get(), state.slowestRegions());
+        return new WorldInspectionResult(worldDir, errors, warnings, newWorld, stats);
+    }
+
+    /**
+     * Up to half the available processors, capped at
+     * {@value #MAX_DEFAULT_PARALLELISM} threads so a scan beside a running
+     * server leaves it room.
+     */
+    public static int defaultParallelism() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(MAX_DEFAULT_PARALLELISM, processors / 2));
     }
 
-    private static void inspectWorld(Path worldDir, List<String> warnings, List<String> errors) {
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("debugguardian-worldscan-" + thread.getPoolIndex());
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    }
+
+    private static void inspectWorld(Path worldDir, ForkJoinPool pool, InspectionState state,
+                                     List<String> warnings, List<String> errors) {
         Path levelDat = worldDir.resolve("level.dat");
         Path sessionLock = worldDir.resolve("session.lock");
         Path levelDatOld = worldDir.resolve("level.dat_old");
 
-        checkFile(levelDat, "level.dat", true, warnings, errors);
+        List<RegionDirectoryTask> regionDirs = new ArrayList<>();
+        regionDirs.add(new RegionDirectoryTask(worldDir.resolve("region"), "Overworld", state));
+        regionDirs.add(new RegionDirectoryTask(worldDir.resolve("DIM-1").resolve("region"), "The Nether", state));
+        regionDirs.add(new RegionDirectoryTask(worldDir.resolve("DIM1").resolve("region"), "The End", state));
+        List<Path> customDimensions = listCustomDimensions(worldDir.resolve("dimensions"), warnings);
+        for (Path dim : customDimensions) {
+            regionDirs.add(new RegionDirectoryTask(dim.resolve("region"), customDimensionLabel(worldDir, dim), state));
+        }
+        for (RegionDirectoryTask task : regionDirs) {
+            pool.execute(task);
+        }
+
+        checkFile(levelDat, "level.dat", true, false, state, warnings, errors);
         validateCompressedNbt(levelDat, "level.dat", true, warnings, errors);
 
-        checkFile(sessionLock, "session.lock", false, warnings, errors);
+        checkFile(sessionLock, "session.lock", false, false, state, warnings, errors);
 
-        checkFile(levelDatOld, "level.dat_old", false, warnings, errors);
+        checkFile(levelDatOld, "level.dat_old", false, true, state, warnings, errors);
         validateCompressedNbt(levelDatOld, "level.dat_old", false, warnings, errors);
 
-        checkRegionDirectory(worldDir.resolve("region"), "Overworld", warnings, errors);
-        checkRegionDirectory(worldDir.resolve("DIM-1").resolve("region"), "The Nether", warnings, errors);
-        checkRegionDirectory(worldDir.resolve("DIM1").resolve("region"), "The End", warnings, errors);
-
-        inspectCustomDimensions(worldDir.resolve("dimensions"), warnings, errors);
+        for (int i = 0; i < 3; i++) {
+            regionDirs.get(i).join().drainTo(warnings, errors);
+        }
+        for (int i = 0; i < customDimensions.size(); i++) {
+            regionDirs.get(3 + i).join().drainTo(warnings, errors);
+            checkPoiDirectory(customDimensions.get(i).resolve("poi"), regionDirs.get(3 + i).label, warnings);
+        }
 
-        checkPlayerData(worldDir.resolve("playerdata"), warnings, errors);
+        checkPlayerData(worldDir.resolve("playerdata"), state, warnings, errors);
         checkPoiDirectory(worldDir.resolve("poi"), "Overworld", warnings);
         checkPoiDirectory(worldDir.resolve("DIM-1").resolve("poi"), "The Nether", warnings);
         checkPoiDirectory(worldDir.resolve("DIM1").resolve("poi"), "The End", warnings);
     }
 
-    private static void checkFile(Path file, String description, boolean critical, List<String> warnings, List<String> errors) {
+    private static void checkFile(
+            Path file,
+            String description,
+            boolean critical,
+            boolean missingIsNormalForNewWorld,
+            InspectionState state,
+            List<String> warnings,
+            List<String> errors
+    ) {
         if (Files.notExists(file)) {
             String message = description + " is missing (" + file.toAbsolutePath() + ")";
             if (critical) {
                 errors.add(message);
             } else {
-                warnings.add(message);
+                addWarning(message, missingIsNormalForNewWorld, state, warnings);
             }
             return;
         }
@@ -78,7 +204,7 @@ public final class WorldIntegrityScanner {
                 if (critical) {
                     errors.add(message);
                 } else {
-                    warnings.add(message);
+                    addWarning(message, missingIsNormalForNewWorld, state, warnings);
                 }
             }
         } catch (IOException e) {
@@ -86,58 +212,213 @@ public final class WorldIntegrityScanner {
             if (critical) {
                 errors.add(message);
             } else {
-                warnings.add(message);
+                addWarning(message, missingIsNormalForNewWorld, state, warnings);
             }
         }
     }
 
-    private static void checkRegionDirectory(Path dir, String label, List<String> warnings, List<String> errors) {
-        if (Files.notExists(dir)) {
-            warnings.add(label + " has no region directory (" + dir.toAbsolutePath() + "); no chunks may have been generated yet.");
-            return;
+    private static void addWarning(String message, boolean newWorldIndicator, InspectionState state, List<String> warnings) {
+        warnings.add(message);
+        if (newWorldIndicator) {
+            state.registerNewWorldWarning(message);
         }
+    }
 
-        if (!Files.isDirectory(dir)) {
-            errors.add(label + " region path is not a directory: " + dir.toAbsolutePath());
-            return;
+    /**
+     * Lists one region directory and inspects its files as subtasks.
+     */
+    private static final class RegionDirectoryTask extends RecursiveTask<Findings> {
+        private final Path dir;
+        private final String label;
+        private final InspectionState state;
+
+        private RegionDirectoryTask(Path dir, String label, InspectionState state) {
+            this.dir = dir;
+            this.label = label;
+            this.state = state;
         }
 
-        int regionFiles = 0;
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
-            for (Path entry : stream) {
-                if (Files.isDirectory(entry)) {
-                    continue;
+        @Override
+        protected Findings compute() {
+            Findings findings = new Findings();
+            if (Files.notExists(dir)) {
+                String message = label + " has no region directory (" + dir.toAbsolutePath() + "); no chunks may have been generated yet.";
+                findings.warnings.add(message);
+                state.registerNewWorldWarning(message);
+                return findings;
+            }
+
+            if (!Files.isDirectory(dir)) {
+                findings.errors.add(label + " region path is not a directory: " + dir.toAbsolutePath());
+                return findings;
+            }
+
+            List<Path> regionFiles = new ArrayList<>();
+            List<Path> externalChunks = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path entry : stream) {
+                    String name = entry.getFileName().toString();
+                    if (name.endsWith(".mca")) {
+                        regionFiles.add(entry);
+                    } else if (name.endsWith(".mcc") && state.deep && !Files.isDirectory(entry)) {
+                        // Only stray if no chunk refers to it; decided once the files are read.
+                        externalChunks.add(entry);
+                    } else if ((name.endsWith(".mcc") || name.endsWith(".tmp")) && !Files.isDirectory(entry)) {
+                        findings.warnings.add(label + " region contains stray file " + name + " (" + entry.toAbsolutePath() + ")");
+                    }
                 }
+            } catch (IOException e) {
+                findings.errors.add("Failed to inspect region directory for " + label + ": " + e.getMessage());
+                return findings;
+            }
+
+            regionFiles.sort(Comparator.comparing(Path::getFileName));
+            List<RegionFileTask> tasks = new ArrayList<>(regionFiles.size());
+            for (Path file : regionFiles) {
+                tasks.add(new RegionFileTask(file, label, state));
+            }
+            ForkJoinTask.invokeAll(tasks);
+            int inspected = 0;
+            Set<String> referenced = new HashSet<>();
+            for (RegionFileTask task : tasks) {
+                Findings fileFindings = task.join();
+                if (fileFindings != null) {
+                    inspected++;
+                    fileFindings.drainTo(findings.warnings, findings.errors);
+                    referenced.addAll(fileFindings.externalFiles);
+                }
+            }
+
+            externalChunks.sort(Comparator.comparing(Path::getFileName));
+            for (Path entry : externalChunks) {
                 String name = entry.getFileName().toString();
-                if (name.endsWith(".mca")) {
-                    regionFiles++;
-                    inspectRegionFile(entry, label, warnings, errors);
-                } else if (name.endsWith(".mcc") || name.endsWith(".tmp")) {
-                    warnings.add(label + " region contains stray file " + name + " (" + entry.toAbsolutePath() + ")");
+                if (!referenced.contains(name)) {
+                    findings.warnings.add(label + " region contains stray file " + name
+                            + ", not referenced by any chunk (" + entry.toAbsolutePath() + ")");
                 }
             }
-        } catch (IOException e) {
-            errors.add("Failed to inspect region directory for " + label + ": " + e.getMessage());
-            return;
+
+            if (inspected == 0) {
+                String message = label + " region directory contains no .mca files (" + dir.toAbsolutePath() + ")";
+                findings.warnings.add(message);
+                state.registerNewWorldWarning(message);
+            } else {
+                state.markChunkDataFound();
+            }
+            return findings;
+        }
+    }
+
+    /**
+     * Inspects one region file; yields {@code null} for directories named
+     * like region files.
+     */
+    private static final class RegionFileTask extends RecursiveTask<Findings> {
+        private final Path file;
+        private final String label;
+        private final InspectionState state;
+
+        private RegionFileTask(Path file, String label, InspectionState state) {
+            this.file = file;
+            this.label = label;
+            this.state = state;
         }
 
-        if (regionFiles == 0) {
-            warnings.add(label + " region directory contains no .mca files (" + dir.toAbsolutePath() + ")");
+        @Override
+        protected Findings compute() {
+            if (Files.isDirectory(file)) {
+                return null;
+            }
+            state.control.checkpoint();
+            long begin = System.nanoTime();
+            Findings findings = new Findings();
+            inspectRegionFile(file, label, state, findings);
+            state.maybeCheckpoint();
+            state.control.afterWork(System.nanoTime() - begin);
+            return findings;
+        }
+    }
+
+    /**
+     * Warnings and errors from one task, merged into the report in order.
+     */
+    private static final class Findings {
+        private final List<String> warnings = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private Set<String> externalFiles = Set.of();
+
+        private void drainTo(List<String> warnings, List<String> errors) {
+            warnings.addAll(this.warnings);
+            errors.addAll(this.errors);
         }
     }
 
-    private static void inspectRegionFile(Path file, String label, List<String> warnings, List<String> errors) {
-        long size;
+    private static void inspectRegionFile(Path file, String label, InspectionState state, Findings findings) {
+        BasicFileAttributes attributes;
         try {
-            size = Files.size(file);
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
         } catch (IOException e) {
-            warnings.add("Failed to read region file " + file.getFileName() + " for " + label + ": " + e.getMessage());
+            findings.warnings.add("Failed to read region file " + file.getFileName() + " for " + label + ": " + e.getMessage());
             return;
         }
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        state.regionFiles.incrementAndGet();
+        state.regionBytes.addAndGet(size);
+
+        ByteBuffer header = HEADER_BUFFER.get().clear();
+        int headerRead = 0;
+        if (size >= HEADER_BYTES) {
+            state.control.acquireBytes(HEADER_BYTES);
+            try {
+                headerRead = readHeader(file, header);
+            } catch (IOException e) {
+                findings.warnings.add("Failed to read region header for " + label + " file " + file.getFileName() + ": " + e.getMessage());
+                return;
+            }
+        }
+        String key = state.cacheKey(file);
+        long headerHash = 0L;
+        if (headerRead == HEADER_BYTES) {
+            headerHash = hash(header);
+            RegionScanCache.Entry cached = state.cache.lookup(key, size, modified, headerHash, state.deep,
+                    file.getParent());
+            if (cached != null) {
+                findings.warnings.addAll(cached.warnings());
+                findings.errors.addAll(cached.errors());
+                findings.externalFiles = cached.externalFiles().keySet();
+                state.cachedFiles.incrementAndGet();
+                return;
+            }
+        }
+
+        if (checkRegionFile(file, label, size, header, headerRead, state, findings) && headerRead == HEADER_BYTES) {
+            Map<String, RegionScanCache.FileStamp> externalFiles = new HashMap<>();
+            for (String name : findings.externalFiles) {
+                RegionScanCache.FileStamp stamp = RegionScanCache.FileStamp.of(file.resolveSibling(name));
+                if (stamp == null) {
+                    // Reported missing; recheck the region next time rather than caching that.
+                    return;
+                }
+                externalFiles.put(name, stamp);
+            }
+            state.cache.store(key, new RegionScanCache.Entry(size, modified, headerHash, state.deep,
+                    List.copyOf(findings.warnings), List.copyOf(findings.errors), Map.copyOf(externalFiles)));
+        }
+    }
 
+    /**
+     * Runs the checks on a region file whose header has been read into
+     * {@code header}. Returns whether the file could be read completely, so
+     * its findings are worth caching.
+     */
+    private static boolean checkRegionFile(Path file, String label, long size, ByteBuffer header, int headerRead,
+                                           InspectionState state, Findings findings) {
+        List<String> warnings = findings.warnings;
+        List<String> errors = findings.errors;
         if (size == 0L) {
             errors.add(label + " region file " + file.getFileName() + " is empty");
-            return;
+            return true;
         } else if (size < 16 * 1024L) {
             warnings.add(label + " region file " + file.getFileName() + " is unusually small (" + size + " bytes)");
         }
@@ -146,17 +427,51 @@ public final class WorldIntegrityScanner {
             warnings.add(label + " region file " + file.getFileName() + " size is not aligned to 4KiB (" + size + " bytes)");
         }
 
-        validateRegionHeader(file, label, size, warnings, errors);
+        if (!validateRegionHeader(file, label, size, header, headerRead, warnings, errors)) {
+            return true;
+        }
+        if (!state.deep) {
+            return true;
+        }
+        RegionChunkValidator.Result result = RegionChunkValidator.validate(file, label, header, size, state.control, warnings, errors);
+        state.recordRegion(label + " " + file.getFileName(), result);
+        findings.externalFiles = result.externalFiles();
+        return result.complete();
     }
 
-    private static void inspectCustomDimensions(Path dimensionsDir, List<String> warnings, List<String> errors) {
+    /**
+     * Reads the location and timestamp tables with positional reads, returning
+     * the number of bytes read.
+     */
+    private static int readHeader(Path file, ByteBuffer header) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int read = 0;
+            while (header.hasRemaining()) {
+                int n = channel.read(header, read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+            return read;
+        }
+    }
+
+    private static long hash(ByteBuffer header) {
+        CRC32C crc = new CRC32C();
+        crc.update(header.duplicate().flip());
+        return crc.getValue();
+    }
+
+    private static List<Path> listCustomDimensions(Path dimensionsDir, List<String> warnings) {
+        List<Path> dimensions = new ArrayList<>();
         if (Files.notExists(dimensionsDir)) {
-            return;
+            return dimensions;
         }
 
         if (!Files.isDirectory(dimensionsDir)) {
             warnings.add("Dimensions path is not a directory: " + dimensionsDir.toAbsolutePath());
-            return;
+            return dimensions;
         }
 
         try (DirectoryStream<Path> namespaces = Files.newDirectoryStream(dimensionsDir)) {
@@ -166,21 +481,23 @@ public final class WorldIntegrityScanner {
                 }
                 try (DirectoryStream<Path> dims = Files.newDirectoryStream(namespace)) {
                     for (Path dim : dims) {
-                        if (!Files.isDirectory(dim)) {
-                            continue;
+                        if (Files.isDirectory(dim)) {
+                            dimensions.add(dim);
                         }
-                        String label = "Dimension " + dimensionsDir.relativize(dim).toString().replace('\\', '/');
-                        checkRegionDirectory(dim.resolve("region"), label, warnings, errors);
-                        checkPoiDirectory(dim.resolve("poi"), label, warnings);
                     }
                 }
             }
         } catch (IOException e) {
             warnings.add("Failed to inspect custom dimensions: " + e.getMessage());
         }
+        return dimensions;
+    }
+
+    private static String customDimensionLabel(Path worldDir, Path dim) {
+        return "Dimension " + worldDir.resolve("dimensions").relativize(dim).toString().replace('\\', '/');
     }
 
-    private static void checkPlayerData(Path dir, List<String> warnings, List<String> errors) {
+    private static void checkPlayerData(Path dir, InspectionState state, List<String> warnings, List<String> errors) {
         if (Files.notExists(dir)) {
             return;
         }
@@ -194,6 +511,7 @@ public final class WorldIntegrityScanner {
             for (Path entry : stream) {
                 try {
                     long size = Files.size(entry);
+                    state.markPlayerDataFound();
                     if (size == 0L) {
                         warnings.add("Player data file " + entry.getFileName() + " is empty");
                     }
@@ -270,67 +588,153 @@ public final class WorldIntegrityScanner {
         }
     }
 
-    private static void validateRegionHeader(Path file, String label, long size, List<String> warnings, List<String> errors) {
-        if (size < 8192L) {
+    /**
+     * Checks the location table in {@code header}. Returns whether it was read
+     * completely.
+     */
+    private static boolean validateRegionHeader(Path file, String label, long size, ByteBuffer header, int read,
+                                                List<String> warnings, List<String> errors) {
+        if (size < HEADER_BYTES) {
             errors.add(label + " region file " + file.getFileName() + " is too small to contain a valid header (" + size + " bytes)");
-            return;
+            return false;
+        }
+        if (read < HEADER_BYTES) {
+            errors.add(label + " region file " + file.getFileName() + " header is truncated (" + read + " bytes read)");
+            return false;
         }
 
-        try (SeekableByteChannel channel = Files.newByteChannel(file, StandardOpenOption.READ)) {
-            ByteBuffer header = ByteBuffer.allocate(4096);
-            int read = channel.read(header);
-            if (read < 4096) {
-                errors.add(label + " region file " + file.getFileName() + " header is truncated (" + read + " bytes read)");
-                return;
+        long totalSectors = size / 4096L;
+        boolean hasChunkEntries = false;
+        boolean invalidOffsets = false;
+        boolean invalidSizes = false;
+        boolean zeroLengthChunks = false;
+
+        for (int position = 0; position < LOCATION_BYTES; position += 4) {
+            int entry = header.getInt(position);
+            int offset = (entry >>> 8) & 0xFFFFFF;
+            int sectors = entry & 0xFF;
+
+            if (offset == 0 && sectors == 0) {
+                continue;
             }
 
-            header.flip();
-            long totalSectors = size / 4096L;
-            boolean hasChunkEntries = false;
-            boolean invalidOffsets = false;
-            boolean invalidSizes = false;
-            boolean zeroLengthChunks = false;
+            if (sectors == 0) {
+                zeroLengthChunks = true;
+                continue;
+            }
 
-            while (header.remaining() >= 4) {
-                int entry = header.getInt();
-                int offset = (entry >>> 8) & 0xFFFFFF;
-                int sectors = entry & 0xFF;
+            hasChunkEntries = true;
 
-                if (offset == 0 && sectors == 0) {
-                    continue;
-                }
+            if (offset < 2) {
+                invalidOffsets = true;
+            }
 
-                if (sectors == 0) {
-                    zeroLengthChunks = true;
-                    continue;
-                }
+            long chunkEnd = (long) offset + sectors;
+            if (chunkEnd > totalSectors) {
+                invalidSizes = true;
+            }
+        }
 
-                hasChunkEntries = true;
+        if (!hasChunkEntries) {
+            warnings.add(label + " region file " + file.getFileName() + " header lists no chunks; file may be empty or truncated");
+        }
+        if (invalidOffsets) {
+            errors.add(label + " region file " + file.getFileName() + " has chunk entries with invalid sector offsets");
+        }
+        if (invalidSizes) {
+            errors.add(label + " region file " + file.getFileName() + " has chunk entries that extend beyond the file size");
+        }
+        if (zeroLengthChunks) {
+            warnings.add(label + " region file " + file.getFileName() + " has chunk entries with zero length; file may be mid-write or corrupted");
+        }
+        return true;
+    }
 
-                if (offset < 2) {
-                    invalidOffsets = true;
-                }
+    /**
+     * Shared state of one scan. The region counters and flags are updated from
+     * pool threads.
+     */
+    private static final class InspectionState {
+        private final Path worldDir;
+        private final boolean deep;
+        private final RegionScanCache cache;
+        private final ScanControl control;
+        private final AtomicLong cachedFiles = new AtomicLong();
+        private final AtomicLong lastCheckpoint = new AtomicLong(System.nanoTime());
+        private final AtomicLong regionFiles = new AtomicLong();
+        private final AtomicLong regionBytes = new AtomicLong();
+        private final AtomicLong chunks = new AtomicLong();
+        private final ConcurrentLinkedQueue<WorldInspectionResult.RegionTiming> regionTimings = new ConcurrentLinkedQueue<>();
+        private volatile boolean chunkDataFound;
+        private volatile boolean playerDataFound;
+        private final List<String> newWorldWarnings = new ArrayList<>();
+
+        InspectionState(Path worldDir, boolean deep, RegionScanCache cache, ScanControl control) {
+            this.worldDir = worldDir;
+            this.deep = deep;
+            this.cache = cache;
+            this.control = control;
+        }
 
-                long chunkEnd = (long) offset + sectors;
-                if (chunkEnd > totalSectors) {
-                    invalidSizes = true;
-                }
+        /**
+         * Checkpoints the cache if the interval has passed; only one worker
+         * writes each checkpoint.
+         */
+        void maybeCheckpoint() {
+            long last = lastCheckpoint.get();
+            long now = System.nanoTime();
+            if (now - last >= TimeUnit.SECONDS.toNanos(CHECKPOINT_INTERVAL_SECONDS)
+                    && lastCheckpoint.compareAndSet(last, now)) {
+                checkpoint();
             }
+        }
 
-            if (!hasChunkEntries) {
-                warnings.add(label + " region file " + file.getFileName() + " header lists no chunks; file may be empty or truncated");
-            }
-            if (invalidOffsets) {
-                errors.add(label + " region file " + file.getFileName() + " has chunk entries with invalid sector offsets");
-            }
-            if (invalidSizes) {
-                errors.add(label + " region file " + file.getFileName() + " has chunk entries that extend beyond the file size");
+        void checkpoint() {
+            try {
+                cache.saveCheckpoint();
+            } catch (IOException ignored) {
+                // The next checkpoint or the final save tries again.
             }
-            if (zeroLengthChunks) {
-                warnings.add(label + " region file " + file.getFileName() + " has chunk entries with zero length; file may be mid-write or corrupted");
+        }
+
+        String cacheKey(Path file) {
+            return worldDir.relativize(file).toString().replace('\\', '/');
+        }
+
+        void recordRegion(String region, RegionChunkValidator.Result result) {
+            chunks.addAndGet(result.chunks());
+            regionTimings.add(new WorldInspectionResult.RegionTiming(region, result.chunks(), result.nanos()));
+        }
+
+        List<WorldInspectionResult.RegionTiming> slowestRegions() {
+            return regionTimings.stream()
+                    .sorted(Comparator.comparingLong(WorldInspectionResult.RegionTiming::nanos).reversed())
+                    .limit(SLOWEST_REGIONS)
+                    .toList();
+        }
+
+        void markChunkDataFound() {
+            this.chunkDataFound = true;
+        }
+
+        void markPlayerDataFound() {
+            this.playerDataFound = true;
+        }
+
+        synchronized void registerNewWorldWarning(String message) {
+            this.newWorldWarnings.add(message);
+        }
+
+        synchronized void removeNewWorldWarnings(List<String> warnings) {
+            for (String message : newWorldWarnings) {
+                while (warnings.remove(message)) {
+                    // remove every occurrence
+                }
             }
-        } catch (IOException e) {
-            warnings.add("Failed to read region header for " + label + " file " + file.getFileName() + ": " + e.getMessage());
+        }
+
+        boolean isBrandNewWorld() {
+            return !chunkDataFound && !playerDataFound;
         }
     }
 }
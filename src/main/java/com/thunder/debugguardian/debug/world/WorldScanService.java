@@ -0,0 +1,160 @@
+package com.thunder.debugguardian.debug.world;
+
+import com.thunder.debugguardian.config.DebugConfig;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.storage.LevelResource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs world integrity scans inside the game process, so automated and
+ * on-demand checks no longer start a second JVM with the whole modpack on its
+ * classpath and parse its report back.
+ * <p>
+ * Scans are queued on a single minimum-priority daemon thread and one runs at
+ * a time. {@link WorldIntegrityScanner} inspects the region files with the
+ * configured number of worker threads, duty cycle and IO limit, backing off
+ * while the server's tick time is above the configured threshold. Every scan
+ * can be paused, resumed and cancelled through its {@link ScanTask}.
+ */
+public final class WorldScanService {
+    private static final Object LOCK = new Object();
+    private static final List<ScanTask> TASKS = new ArrayList<>();
+    private static ExecutorService executor;
+
+    private WorldScanService() {
+    }
+
+    /**
+     * A submitted scan. Its result completes exceptionally with a
+     * {@link java.util.concurrent.CancellationException} if it is cancelled.
+     */
+    public static final class ScanTask {
+        private final Path worldDir;
+        private final boolean deep;
+        private final ScanControl control;
+        private final CompletableFuture<WorldInspectionResult> result = new CompletableFuture<>();
+
+        private ScanTask(Path worldDir, boolean deep, ScanControl control) {
+            this.worldDir = worldDir;
+            this.deep = deep;
+            this.control = control;
+        }
+
+        public CompletableFuture<WorldInspectionResult> result() {
+            return result;
+        }
+
+        public void cancel() {
+            control.cancel();
+        }
+
+        public void pause() {
+            control.pause();
+        }
+
+        public void resume() {
+            control.resume();
+        }
+
+        public boolean isPaused() {
+            return control.isPaused();
+        }
+    }
+
+    /**
+     * Queues a scan of the server's world using the configured throttling.
+     *
+     * @param cacheDir directory of the scan cache, or {@code null} to inspect
+     *                 every region file
+     */
+    public static ScanTask submit(MinecraftServer server, boolean deep, Path cacheDir) {
+        DebugConfig config = DebugConfig.get();
+        ScanControl control = new ScanControl(
+                config.worldScanDutyCyclePercent,
+                config.worldScanIoLimitMbPerSecond * 1024L * 1024L,
+                () -> server.getAverageTickTimeNanos() / 1_000_000.0,
+                config.worldScanBackoffMspt
+        );
+        ScanTask task = new ScanTask(server.getWorldPath(LevelResource.ROOT), deep, control);
+        int threads = config.worldScanThreads > 0
+                ? config.worldScanThreads
+                : WorldIntegrityScanner.defaultParallelism();
+        synchronized (LOCK) {
+            TASKS.add(task);
+            getExecutor().execute(() -> run(task, threads, cacheDir));
+        }
+        return task;
+    }
+
+    /**
+     * Returns the oldest scan that has not finished yet.
+     */
+    public static ScanTask running() {
+        synchronized (LOCK) {
+            return TASKS.isEmpty() ? null : TASKS.get(0);
+        }
+    }
+
+    /**
+     * Returns whether the last scan with this cache stopped before completing,
+     * for example because the server shut down, and left a checkpoint.
+     */
+    public static boolean hasCheckpoint(MinecraftServer server, Path cacheDir) {
+        return RegionScanCache.hasCheckpoint(cacheDir, server.getWorldPath(LevelResource.ROOT));
+    }
+
+    /**
+     * Cancels every queued and running scan and stops the scan thread; called
+     * when the server stops. The running scan writes its checkpoint first.
+     */
+    public static void shutdown() {
+        synchronized (LOCK) {
+            for (ScanTask task : TASKS) {
+                task.cancel();
+            }
+            if (executor != null) {
+                // Not shutdownNow: an interrupt would abort the checkpoint write.
+                executor.shutdown();
+                executor = null;
+            }
+        }
+    }
+
+    private static void run(ScanTask task, int threads, Path cacheDir) {
+        WorldInspectionResult result = null;
+        Throwable failure = null;
+        try {
+            task.control.checkCancelled();
+            result = WorldIntegrityScanner.scan(task.worldDir, threads, task.deep, cacheDir, task.control);
+        } catch (Throwable t) {
+            failure = t;
+        }
+        // Leave the queue before completing, so callbacks may submit the next scan.
+        synchronized (LOCK) {
+            TASKS.remove(task);
+        }
+        if (failure != null) {
+            task.result.completeExceptionally(failure);
+        } else {
+            task.result.complete(result);
+        }
+    }
+
+    private static ExecutorService getExecutor() {
+        if (executor == null || executor.isShutdown()) {
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "debugguardian-worldscan");
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            });
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,37 @@
+package com.thunder.debugguardian.mixin;
+
+import com.llamalad7.mixinextras.injector.wrapoperation.Operation;
+import com.llamalad7.mixinextras.injector.wrapoperation.WrapOperation;
+import com.thunder.debugguardian.debug.monitor.LagSourceTracker;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntityTicker;
+import net.minecraft.world.level.block.state.BlockState;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+
+/**
+ * Times server-side block entity tickers for {@link LagSourceTracker} when lag
+ * source instrumentation is enabled.
+ */
+@Mixin(targets = "net.minecraft.world.level.chunk.LevelChunk$BoundTickingBlockEntity")
+public abstract class BoundTickingBlockEntityMixin {
+
+    @WrapOperation(method = "tick", at = @At(value = "INVOKE",
+            target = "Lnet/minecraft/world/level/block/entity/BlockEntityTicker;tick(Lnet/minecraft/world/level/Level;Lnet/minecraft/core/BlockPos;Lnet/minecraft/world/level/block/state/BlockState;Lnet/minecraft/world/level/block/entity/BlockEntity;)V"))
+    private void debugguardian$timeBlockEntityTick(BlockEntityTicker<BlockEntity> ticker, Level level, BlockPos pos,
+                                                   BlockState state, BlockEntity blockEntity,
+                                                   Operation<Void> original) {
+        if (!LagSourceTracker.isEnabled() || level.isClientSide()) {
+            original.call(ticker, level, pos, state, blockEntity);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            original.call(ticker, level, pos, state, blockEntity);
+        } finally {
+            LagSourceTracker.recordBlockEntity(blockEntity, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.thunder.debugguardian.mixin;
+
+import com.thunder.debugguardian.debug.monitor.TickPhaseTimer;
+import net.minecraft.server.MinecraftServer;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Brackets the tick phases that NeoForge fires no events for, so
+ * {@link TickPhaseTimer} can time them.
+ */
+@Mixin(MinecraftServer.class)
+public abstract class MinecraftServerMixin {
+
+    @Inject(method = "tickChildren", at = @At(value = "INVOKE",
+            target = "Lnet/minecraft/server/network/ServerConnectionListener;tick()V"))
+    private void debugguardian$beforeConnectionTick(BooleanSupplier hasTimeLeft, CallbackInfo ci) {
+        TickPhaseTimer.begin(TickPhaseTimer.Phase.NETWORK);
+    }
+
+    @Inject(method = "tickChildren", at = @At(value = "INVOKE",
+            target = "Lnet/minecraft/server/network/ServerConnectionListener;tick()V", shift = At.Shift.AFTER))
+    private void debugguardian$afterConnectionTick(BooleanSupplier hasTimeLeft, CallbackInfo ci) {
+        TickPhaseTimer.end(TickPhaseTimer.Phase.NETWORK);
+    }
+
+    @Inject(method = "saveEverything", at = @At("HEAD"))
+    private void debugguardian$beforeSave(boolean suppressLog, boolean flush, boolean forced,
+                                          CallbackInfoReturnable<Boolean> cir) {
+        TickPhaseTimer.begin(TickPhaseTimer.Phase.CHUNK_SAVE);
+    }
+
+    @Inject(method = "saveEverything", at = @At("RETURN"))
+    private void debugguardian$afterSave(boolean suppressLog, boolean flush, boolean forced,
+                                         CallbackInfoReturnable<Boolean> cir) {
+        TickPhaseTimer.end(TickPhaseTimer.Phase.CHUNK_SAVE);
+    }
+}
@@ -0,0 +1,32 @@
+package com.thunder.debugguardian.mixin;
+
+import com.llamalad7.mixinextras.injector.wrapoperation.Operation;
+import com.llamalad7.mixinextras.injector.wrapoperation.WrapOperation;
+import com.thunder.debugguardian.debug.monitor.PacketTrafficMonitor;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.PacketDecoder;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.Packet;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+
+/**
+ * Measures the wire size of incoming packets for
+ * {@link PacketTrafficMonitor}.
+ */
+@Mixin(PacketDecoder.class)
+public abstract class PacketDecoderMixin {
+
+    @WrapOperation(method = "decode",
+            at = @At(value = "INVOKE",
+                    target = "Lnet/minecraft/network/codec/StreamCodec;decode(Ljava/lang/Object;)Ljava/lang/Object;"))
+    private Object debugguardian$measureInbound(StreamCodec<ByteBuf, Packet<?>> codec, Object in,
+                                                Operation<Object> original) {
+        int size = ((ByteBuf) in).readableBytes();
+        Object packet = original.call(codec, in);
+        if (packet instanceof Packet<?> decoded) {
+            PacketTrafficMonitor.recordInbound(decoded, size);
+        }
+        return packet;
+    }
+}
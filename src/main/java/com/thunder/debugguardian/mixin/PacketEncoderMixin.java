@@ -0,0 +1,30 @@
+package com.thunder.debugguardian.mixin;
+
+import com.llamalad7.mixinextras.injector.wrapoperation.Operation;
+import com.llamalad7.mixinextras.injector.wrapoperation.WrapOperation;
+import com.thunder.debugguardian.debug.monitor.PacketTrafficMonitor;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.network.PacketEncoder;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.Packet;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+
+/**
+ * Measures the encoded size of outgoing packets for
+ * {@link PacketTrafficMonitor}.
+ */
+@Mixin(PacketEncoder.class)
+public abstract class PacketEncoderMixin {
+
+    @WrapOperation(method = "encode(Lio/netty/channel/ChannelHandlerContext;Lnet/minecraft/network/protocol/Packet;Lio/netty/buffer/ByteBuf;)V",
+            at = @At(value = "INVOKE",
+                    target = "Lnet/minecraft/network/codec/StreamCodec;encode(Ljava/lang/Object;Ljava/lang/Object;)V"))
+    private void debugguardian$measureOutbound(StreamCodec<ByteBuf, Packet<?>> codec, Object out, Object packet,
+                                               Operation<Void> original) {
+        ByteBuf buffer = (ByteBuf) out;
+        int start = buffer.writerIndex();
+        original.call(codec, out, packet);
+        PacketTrafficMonitor.recordOutbound((Packet<?>) packet, buffer.writerIndex() - start);
+    }
+}
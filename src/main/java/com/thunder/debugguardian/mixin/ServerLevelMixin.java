@@ -0,0 +1,47 @@
+package com.thunder.debugguardian.mixin;
+
+import com.llamalad7.mixinextras.injector.wrapoperation.Operation;
+import com.llamalad7.mixinextras.injector.wrapoperation.WrapOperation;
+import com.thunder.debugguardian.debug.monitor.LagSourceTracker;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+
+/**
+ * Times entity ticks for {@link LagSourceTracker} when lag source
+ * instrumentation is enabled.
+ */
+@Mixin(ServerLevel.class)
+public abstract class ServerLevelMixin {
+
+    @WrapOperation(method = "tickNonPassenger", at = @At(value = "INVOKE",
+            target = "Lnet/minecraft/world/entity/Entity;tick()V"))
+    private void debugguardian$timeEntityTick(Entity entity, Operation<Void> original) {
+        if (!LagSourceTracker.isEnabled()) {
+            original.call(entity);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            original.call(entity);
+        } finally {
+            LagSourceTracker.recordEntity(entity, System.nanoTime() - start);
+        }
+    }
+
+    @WrapOperation(method = "tickPassenger", at = @At(value = "INVOKE",
+            target = "Lnet/minecraft/world/entity/Entity;rideTick()V"))
+    private void debugguardian$timePassengerTick(Entity passenger, Operation<Void> original) {
+        if (!LagSourceTracker.isEnabled()) {
+            original.call(passenger);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            original.call(passenger);
+        } finally {
+            LagSourceTracker.recordEntity(passenger, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.thunder.debugguardian.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appends lines to a file from a single background thread.
+ * <p>
+ * Producers only enqueue into a bounded queue and never block: when the queue
+ * is full the line is dropped and counted, and the next batch written records
+ * how many lines were lost. Lines of a batch that fails to write are counted
+ * the same way. The writer thread drains the queue in batches into
+ * one long-lived buffered stream, flushing whenever it goes idle or the flush
+ * interval elapses, and once more on JVM shutdown.
+ */
+public final class AsyncLineWriter {
+    private static final int MAX_BATCH = 256;
+    private static final String STOP = new String("<stop>");
+
+    private final Path file;
+    private final long flushIntervalNanos;
+    private final BlockingQueue<String> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private BufferedWriter writer;
+    private boolean dirty;
+    private long lastFlush = System.nanoTime();
+
+    public AsyncLineWriter(String threadName, Path file, int capacity, long flushIntervalMs) {
+        this.file = file;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.thread = new Thread(this::run, threadName);
+        this.thread.setDaemon(true);
+        this.thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, threadName + "-shutdown"));
+    }
+
+    /**
+     * Queues a line for writing. Returns {@code false} if it was dropped because
+     * the queue is full or the writer has been closed.
+     */
+    public boolean write(String line) {
+        if (running && queue.offer(line)) {
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Stops accepting lines, writes whatever is still queued and closes the file.
+     */
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        queue.offer(STOP);
+        try {
+            thread.join(2000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<String> batch = new ArrayList<>(MAX_BATCH);
+        long pollNanos = Math.max(flushIntervalNanos, TimeUnit.MILLISECONDS.toNanos(50));
+        while (running || !queue.isEmpty()) {
+            String first;
+            try {
+                first = queue.poll(pollNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (first != null) {
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                writeBatch(batch);
+                batch.clear();
+            }
+            if (dirty && (queue.isEmpty() || System.nanoTime() - lastFlush >= flushIntervalNanos)) {
+                flush();
+            }
+        }
+        queue.drainTo(batch);
+        writeBatch(batch);
+        flush();
+        closeWriter();
+    }
+
+    private void writeBatch(List<String> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long lost = 0;
+        int written = 0;
+        try {
+            BufferedWriter out = openWriter();
+            lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                out.write("[dropped " + lost + " lines]");
+                out.newLine();
+                lost = 0;
+            }
+            for (String line : batch) {
+                if (line == STOP) {
+                    written++;
+                    continue;
+                }
+                out.write(line);
+                out.newLine();
+                written++;
+            }
+            dirty = true;
+        } catch (IOException e) {
+            System.err.println("[Debug Guardian] Failed writing " + file.getFileName() + ": " + e.getMessage());
+            // Report the unwritten rest of the batch, and a drop count that was not written, in the next batch.
+            dropped.addAndGet(lost + countLines(batch.subList(written, batch.size())));
+            closeWriter();
+        }
+    }
+
+    private static int countLines(List<String> lines) {
+        int count = 0;
+        for (String line : lines) {
+            if (line != STOP) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private BufferedWriter openWriter() throws IOException {
+        if (writer == null) {
+            Files.createDirectories(file.getParent());
+            writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        return writer;
+    }
+
+    private void flush() {
+        lastFlush = System.nanoTime();
+        if (writer == null || !dirty) {
+            return;
+        }
+        try {
+            writer.flush();
+            dirty = false;
+        } catch (IOException e) {
+            System.err.println("[Debug Guardian] Failed flushing " + file.getFileName() + ": " + e.getMessage());
+            closeWriter();
+        }
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+        }
+        writer = null;
+        dirty = false;
+    }
+}